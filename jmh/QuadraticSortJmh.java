@@ -0,0 +1,57 @@
+package cn.ning.algorithm.sort;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * O(n^2)排序算法（冒泡、选择、插入）和原始快速排序（在有序、逆序等分布上退化为O(n^2)）的JMH基准测试，
+ * 只测试不超过SortBenchmark.QUADRATIC_LIMIT的规模，用法同SortJmh。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class QuadraticSortJmh {
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"uniform", "sorted", "reverse", "organ_pipe", "few_distinct", "nearly_sorted", "sorted_runs",
+            "zipfian"})
+    public String distribution;
+
+    @Param({"quickSort", "insertSort", "selectSort", "bubbleSort"})
+    public String sorter;
+
+    private SortBenchmark.Target target;
+    private int[] data;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = SortJmh.target(sorter);
+        data = SortJmh.data(target, distribution, size);
+        work = SortJmh.checkedWork(target, data);
+    }
+
+    @Benchmark
+    public int[] sort(SortJmh.Elements counter) {
+        System.arraycopy(data, 0, work, 0, size);
+        target.sort.accept(work);
+        counter.elements += size;
+        return work;
+    }
+}
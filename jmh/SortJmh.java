@@ -0,0 +1,119 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 排序算法的JMH基准测试
+ * 排序算法和数据分布与SortBenchmark相同（SortBenchmark.sorters()、SortBenchmark.Distribution），但每个组合都在
+ * 独立的JVM中运行（@Fork），不同排序算法之间不会因为JIT的类型剖面互相影响，结果可以复现。
+ *
+ * 用法：gradle jmh -Pjmh="\.SortJmh -p sorter=introSort,radixSort -p size=1000000 -prof gc"
+ *      第一个参数是基准测试名的正则表达式，写成\.SortJmh，否则也会匹配QuadraticSortJmh。
+ *      sort的得分是每次排序的耗时（ns/op），辅助计数器elements是每个元素的耗时（ns/element）；
+ *      加上-bm thrpt得到吞吐量（次/秒）和每秒处理的元素个数；-prof gc给出内存分配速率（gc.alloc.rate）和
+ *      每次排序分配的字节数（gc.alloc.rate.norm）。
+ *      不指定参数时运行所有组合，耗时很长，通常用-p选择排序算法、规模和分布。
+ *      100M规模需要足够大的堆，例如-jvmArgsAppend -Xmx8g。
+ *      计数排序和十进制基数排序不支持full_range开头的分布，这些组合在setUp中报错并跳过。
+ *
+ * 每次排序前把原始数据复制到工作数组中，复制的时间（约0.1ns/element）计入结果。
+ * O(n^2)的排序算法和原始快速排序在QuadraticSortJmh中只测试小规模。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class SortJmh {
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"uniform", "sorted", "reverse", "organ_pipe", "few_distinct", "nearly_sorted", "sorted_runs",
+            "zipfian", "full_range", "full_range_runs", "full_range_few_distinct"})
+    public String distribution;
+
+    @Param({"adaptive", "introSort", "threeWayQuick", "dualPivotQuick", "simdSort", "mergeSort",
+            "recursiveMerge", "parallelMerge", "timSort", "heapSort", "heapSort4", "heapSort8", "bottomUpHeap",
+            "shellSort", "shellShell", "shellCiura", "shellTokuda", "shellSedgewick", "shellPratt", "radixSort",
+            "binaryRadix8", "binaryRadix11", "binaryRadix16", "parallelRadix", "countingSort", "countingAuto",
+            "parallelCounting", "bucketSort", "parallelBucket"})
+    public String sorter;
+
+    private SortBenchmark.Target target;
+    private int[] data;
+    private int[] work;
+
+    /**
+     * 已排序的元素个数。AverageTime模式下报告为每个元素的耗时，Throughput模式下为每秒处理的元素个数。
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Elements {
+        public long elements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            elements = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = target(sorter);
+        data = data(target, distribution, size);
+        work = checkedWork(target, data);
+    }
+
+    @Benchmark
+    public int[] sort(Elements counter) {
+        System.arraycopy(data, 0, work, 0, size);
+        target.sort.accept(work);
+        counter.elements += size;
+        return work;
+    }
+
+    static SortBenchmark.Target target(String name) {
+        SortBenchmark.Target target = SortBenchmark.sorters().get(name);
+        if (target == null) {
+            throw new IllegalArgumentException("unknown sorter: " + name);
+        }
+        return target;
+    }
+
+    /**
+     * 按分布生成测试数据，随机数种子固定，每次运行的数据相同。
+     */
+    static int[] data(SortBenchmark.Target target, String distribution, int size) {
+        SortBenchmark.Distribution dist = SortBenchmark.Distribution.valueOf(distribution.toUpperCase());
+        if (!target.supports(size, dist)) {
+            throw new IllegalArgumentException("unsupported distribution: " + distribution);
+        }
+        return dist.generate(size, new Random(42));
+    }
+
+    /**
+     * 先排序一次并检查结果，返回之后测量使用的工作数组。
+     */
+    static int[] checkedWork(SortBenchmark.Target target, int[] data) {
+        int[] work = data.clone();
+        target.sort.accept(work);
+        SortBenchmark.checkSorted(work);
+        return work;
+    }
+}
@@ -0,0 +1,531 @@
+package cn.ning.algorithm.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 美国国旗排序（American flag sort）
+ * 对字符串键进行原地MSD（最高位优先）基数排序，支持byte[][]和CharSequence[]（包括String[]）。
+ * 原理：以键的第d个字符（或字节）为数位，先统计每个桶的元素个数，得到每个桶的起止位置；然后沿着置换环把每个
+ *      元素直接交换到其所在桶的下一个空位上，不需要辅助数组。分完桶后，每个桶内的键前d + 1个字符都相同，
+ *      对每个桶以d + 1继续分桶。已经结束的键放在第0个桶中，排在所有以该前缀开头的更长的键之前。
+ *      桶中元素较少时，分桶的计数开销超过收益，改用三路字符串快速排序（Bentley-Sedgewick），
+ *      每次只比较第d个字符，相等的部分以d + 1继续排序，不会重复比较公共前缀。
+ *      CharSequence的字符是16位的，为了只使用256个桶，小于255的字符各占一个桶，不小于255的字符都放在最后
+ *      一个桶中，该桶从第d个字符开始用三路字符串快速排序，顺序依然与CharSequence.compare相同。
+ * 时间复杂度：O(n*w + D)，w为分桶的趟数，D为所有键需要比较的前缀（区分前缀）的总长度。
+ * 空间复杂度：O(n + w)，分桶时把每个键所在的桶记录在short数组中，交换时不必再次访问键的内容；分桶使用显式栈，
+ *      不会因为公共前缀很长而栈溢出。
+ * 不稳定。
+ * 排序顺序：byte[]按无符号字节的字典序，与Arrays.compareUnsigned相同；CharSequence按字符的字典序，
+ *      与CharSequence.compare和String.compareTo相同。键不能为null。
+ */
+public class AmericanFlagSort {
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        String[] words = new String[nums.length];
+        for (int i = 0; i < nums.length; i++) {
+            words[i] = Integer.toString(nums[i]);
+        }
+        americanFlagSort(words);
+        System.out.print("americanFlagSort(String[]): ");
+        System.out.println(Arrays.toString(words));
+        byte[][] keys = new byte[][] {{1, 2}, {(byte) 0x80}, {1}, {}, {0, 5}, {1, 2, 0}};
+        americanFlagSort(keys);
+        System.out.print("americanFlagSort(byte[][]): ");
+        System.out.println(Arrays.deepToString(keys));
+    }
+
+    private static final int RADIX = 256; // 每个数位的取值个数。
+    private static final int BUCKETS = RADIX + 1; // 桶的个数，第0个桶存放已经结束的键。
+    private static final int QUICK_THRESHOLD = 64; // 区间元素个数小于该值时采用三路字符串快速排序。
+    private static final int INSERTION_THRESHOLD = 12; // 区间元素个数不超过该值时采用插入排序。
+    private static final int PARALLEL_THRESHOLD = 1 << 14; // 桶中元素个数不小于该值时作为单独的任务并行排序。
+
+    /* ------------------------------- byte[] ------------------------------- */
+
+    /**
+     * 美国国旗排序
+     * @param keys 待排序的键
+     */
+    public static void americanFlagSort(byte[][] keys) {
+        americanFlagSort(keys, 0, keys.length - 1);
+    }
+
+    /**
+     * 对序列的一个区间进行美国国旗排序。
+     * @param keys 待排序的键
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void americanFlagSort(byte[][] keys, int start, int end) {
+        sort(keys, start, end + 1, 0, new int[BUCKETS + 1], new int[BUCKETS], new short[Math.max(end - start + 1, 0)]);
+    }
+
+    /**
+     * 并行美国国旗排序，使用公共ForkJoinPool。
+     * @param keys 待排序的键
+     */
+    public static void parallelAmericanFlagSort(byte[][] keys) {
+        parallelAmericanFlagSort(keys, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行美国国旗排序
+     * 原理：分桶之后各个桶的排序相互独立，元素个数不小于PARALLEL_THRESHOLD的桶作为单独的任务继续分桶，
+     *      其余的桶在当前任务中串行排序。所有键有很长的公共前缀时（如URL），前几趟只有一个桶，任务会沿着
+     *      公共前缀向下，直到键开始分散时才拆分。
+     * @param keys 待排序的键
+     * @param pool 执行任务的线程池
+     */
+    public static void parallelAmericanFlagSort(byte[][] keys, ForkJoinPool pool) {
+        if (keys.length < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            americanFlagSort(keys);
+            return;
+        }
+        pool.invoke(new ByteArrayTask(keys, 0, keys.length, 0));
+    }
+
+    /**
+     * 三路字符串快速排序，从第d个字节开始比较，区间中的键前d个字节必须相同。
+     * @param keys 待排序的键
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param d 开始比较的位置
+     */
+    public static void threeWayQuickSort(byte[][] keys, int start, int end, int d) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            swap(keys, start, median(keys, start, (start + end) >>> 1, end, d));
+            int pivot = byteAt(keys[start], d);
+            int lt = start; // [start, lt)小于基准。
+            int gt = end; // (gt, end]大于基准。
+            int i = start + 1;
+            while (i <= gt) {
+                int c = byteAt(keys[i], d);
+                if (c < pivot) {
+                    swap(keys, lt++, i++);
+                } else if (c > pivot) {
+                    swap(keys, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            threeWayQuickSort(keys, start, lt - 1, d);
+            threeWayQuickSort(keys, gt + 1, end, d);
+            if (pivot < 0) return; // 等于基准的键都已经结束。
+            start = lt;
+            end = gt;
+            d++;
+        }
+        for (int i = start + 1; i <= end; i++) { // 插入排序。
+            byte[] tmp = keys[i];
+            int j = i - 1;
+            while (j >= start && Arrays.compareUnsigned(keys[j], d, keys[j].length, tmp, d, tmp.length) > 0) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = tmp;
+        }
+    }
+
+    /**
+     * 对区间[start, end)排序，区间中的键前d个字节相同。
+     */
+    private static void sort(byte[][] keys, int start, int end, int d, int[] bounds, int[] next, short[] cache) {
+        int[] stack = new int[3 * BUCKETS];
+        int top = 0;
+        while (true) {
+            if (end - start < QUICK_THRESHOLD) {
+                threeWayQuickSort(keys, start, end - 1, d);
+            } else {
+                distribute(keys, start, end, d, bounds, next, cache);
+                for (int b = 1; b < BUCKETS; b++) { // 第0个桶中的键都已经结束，不需要再排序。
+                    int lo = bounds[b];
+                    int hi = bounds[b + 1];
+                    if (hi - lo < 2) continue;
+                    if (hi - lo < QUICK_THRESHOLD) {
+                        threeWayQuickSort(keys, lo, hi - 1, d + 1);
+                        continue;
+                    }
+                    if (top == stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top++] = lo;
+                    stack[top++] = hi;
+                    stack[top++] = d + 1;
+                }
+            }
+            if (top == 0) return;
+            d = stack[--top];
+            end = stack[--top];
+            start = stack[--top];
+        }
+    }
+
+    /**
+     * 按第d个字节把区间[start, end)中的键原地分到各个桶中，第b个桶为[bounds[b], bounds[b + 1])。
+     */
+    private static void distribute(byte[][] keys, int start, int end, int d, int[] bounds, int[] next,
+                                   short[] cache) {
+        Arrays.fill(bounds, 0);
+        for (int i = start; i < end; i++) {
+            int b = byteAt(keys[i], d) + 1;
+            cache[i - start] = (short) b;
+            bounds[b + 1]++;
+        }
+        bounds[0] = start;
+        for (int b = 0; b < BUCKETS; b++) { // 计算每个桶的起始位置。
+            if (bounds[b + 1] == end - start) { // 所有键都在同一个桶中，不需要移动。
+                Arrays.fill(bounds, 0, b + 1, start);
+                Arrays.fill(bounds, b + 1, BUCKETS + 1, end);
+                return;
+            }
+            bounds[b + 1] += bounds[b];
+        }
+        System.arraycopy(bounds, 0, next, 0, BUCKETS);
+        for (int b = 0; b < BUCKETS - 1; b++) { // 前面的桶都放好之后，最后一个桶自然也放好了。
+            int bucket_end = bounds[b + 1];
+            while (next[b] < bucket_end) { // 沿着置换环把元素放到所在桶的下一个空位上，直到换回一个属于桶b的元素。
+                byte[] key = keys[next[b]];
+                int db = cache[next[b] - start];
+                while (db != b) {
+                    int i = next[db]++;
+                    byte[] tmp = keys[i];
+                    keys[i] = key;
+                    key = tmp;
+                    db = cache[i - start];
+                }
+                keys[next[b]++] = key;
+            }
+        }
+    }
+
+    /**
+     * 第d个字节的无符号值，键已经结束时返回-1。
+     */
+    private static int byteAt(byte[] key, int d) {
+        return d < key.length ? key[d] & 0xFF : -1;
+    }
+
+    /**
+     * 如果分桶后所有len个元素都在同一个桶中，返回该桶，否则返回-1。
+     */
+    private static int single(int[] bounds, int len) {
+        for (int b = 0; b < BUCKETS; b++) {
+            if (bounds[b + 1] - bounds[b] == len) return b;
+        }
+        return -1;
+    }
+
+    private static int median(byte[][] keys, int i, int j, int k, int d) {
+        int a = byteAt(keys[i], d);
+        int b = byteAt(keys[j], d);
+        int c = byteAt(keys[k], d);
+        return a < b ? (b < c ? j : a < c ? k : i) : (b > c ? j : a > c ? k : i);
+    }
+
+    private static void swap(byte[][] keys, int i, int j) {
+        byte[] tmp = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tmp;
+    }
+
+    /**
+     * 并行排序任务，对区间[start, end)分桶，较大的桶拆分为子任务。
+     */
+    private static class ByteArrayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[][] keys;
+        private final int start;
+        private final int end;
+        private final int d;
+
+        ByteArrayTask(byte[][] keys, int start, int end, int d) {
+            this.keys = keys;
+            this.start = start;
+            this.end = end;
+            this.d = d;
+        }
+
+        @Override
+        protected void compute() {
+            int[] bounds = new int[BUCKETS + 1];
+            int[] next = new int[BUCKETS];
+            short[] cache = new short[end - start];
+            int d = this.d;
+            distribute(keys, start, end, d, bounds, next, cache);
+            while (single(bounds, end - start) > 0) { // 公共前缀，不拆分任务，直接处理下一个字节。
+                distribute(keys, start, end, ++d, bounds, next, cache);
+            }
+            List<ByteArrayTask> tasks = new ArrayList<>();
+            int[] sub_bounds = null;
+            int[] sub_next = null;
+            for (int b = 1; b < BUCKETS; b++) {
+                int lo = bounds[b];
+                int hi = bounds[b + 1];
+                if (hi - lo >= PARALLEL_THRESHOLD) {
+                    tasks.add(new ByteArrayTask(keys, lo, hi, d + 1));
+                } else if (hi - lo > 1) {
+                    if (sub_bounds == null) {
+                        sub_bounds = new int[BUCKETS + 1];
+                        sub_next = new int[BUCKETS];
+                    }
+                    sort(keys, lo, hi, d + 1, sub_bounds, sub_next, cache);
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /* ---------------------------- CharSequence ---------------------------- */
+
+    /**
+     * 美国国旗排序
+     * @param keys 待排序的键
+     */
+    public static <T extends CharSequence> void americanFlagSort(T[] keys) {
+        americanFlagSort(keys, 0, keys.length - 1);
+    }
+
+    /**
+     * 对序列的一个区间进行美国国旗排序。
+     * @param keys 待排序的键
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static <T extends CharSequence> void americanFlagSort(T[] keys, int start, int end) {
+        sort(keys, start, end + 1, 0, new int[BUCKETS + 1], new int[BUCKETS], new short[Math.max(end - start + 1, 0)]);
+    }
+
+    /**
+     * 并行美国国旗排序，使用公共ForkJoinPool。
+     * @param keys 待排序的键
+     */
+    public static <T extends CharSequence> void parallelAmericanFlagSort(T[] keys) {
+        parallelAmericanFlagSort(keys, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行美国国旗排序，见parallelAmericanFlagSort(byte[][], ForkJoinPool)。
+     * @param keys 待排序的键
+     * @param pool 执行任务的线程池
+     */
+    public static <T extends CharSequence> void parallelAmericanFlagSort(T[] keys, ForkJoinPool pool) {
+        if (keys.length < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            americanFlagSort(keys);
+            return;
+        }
+        pool.invoke(new CharSequenceTask<>(keys, 0, keys.length, 0));
+    }
+
+    /**
+     * 三路字符串快速排序，从第d个字符开始比较，区间中的键前d个字符必须相同。
+     * @param keys 待排序的键
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param d 开始比较的位置
+     */
+    public static <T extends CharSequence> void threeWayQuickSort(T[] keys, int start, int end, int d) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            swap(keys, start, median(keys, start, (start + end) >>> 1, end, d));
+            int pivot = charAt(keys[start], d);
+            int lt = start; // [start, lt)小于基准。
+            int gt = end; // (gt, end]大于基准。
+            int i = start + 1;
+            while (i <= gt) {
+                int c = charAt(keys[i], d);
+                if (c < pivot) {
+                    swap(keys, lt++, i++);
+                } else if (c > pivot) {
+                    swap(keys, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            threeWayQuickSort(keys, start, lt - 1, d);
+            threeWayQuickSort(keys, gt + 1, end, d);
+            if (pivot < 0) return; // 等于基准的键都已经结束。
+            start = lt;
+            end = gt;
+            d++;
+        }
+        for (int i = start + 1; i <= end; i++) { // 插入排序。
+            T tmp = keys[i];
+            int j = i - 1;
+            while (j >= start && compare(keys[j], tmp, d) > 0) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = tmp;
+        }
+    }
+
+    /**
+     * 对区间[start, end)排序，区间中的键前d个字符相同。
+     */
+    private static <T extends CharSequence> void sort(T[] keys, int start, int end, int d, int[] bounds, int[] next,
+                                                      short[] cache) {
+        int[] stack = new int[3 * BUCKETS];
+        int top = 0;
+        while (true) {
+            if (end - start < QUICK_THRESHOLD) {
+                threeWayQuickSort(keys, start, end - 1, d);
+            } else {
+                distribute(keys, start, end, d, bounds, next, cache);
+                for (int b = 1; b < BUCKETS; b++) { // 第0个桶中的键都已经结束，不需要再排序。
+                    int lo = bounds[b];
+                    int hi = bounds[b + 1];
+                    if (hi - lo < 2) continue;
+                    if (b == BUCKETS - 1) { // 不小于255的字符，第d个字符可能不同。
+                        threeWayQuickSort(keys, lo, hi - 1, d);
+                        continue;
+                    }
+                    if (hi - lo < QUICK_THRESHOLD) {
+                        threeWayQuickSort(keys, lo, hi - 1, d + 1);
+                        continue;
+                    }
+                    if (top == stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top++] = lo;
+                    stack[top++] = hi;
+                    stack[top++] = d + 1;
+                }
+            }
+            if (top == 0) return;
+            d = stack[--top];
+            end = stack[--top];
+            start = stack[--top];
+        }
+    }
+
+    /**
+     * 按第d个字符把区间[start, end)中的键原地分到各个桶中，第b个桶为[bounds[b], bounds[b + 1])。
+     */
+    private static <T extends CharSequence> void distribute(T[] keys, int start, int end, int d,
+                                                            int[] bounds, int[] next, short[] cache) {
+        Arrays.fill(bounds, 0);
+        for (int i = start; i < end; i++) {
+            int b = bucket(keys[i], d);
+            cache[i - start] = (short) b;
+            bounds[b + 1]++;
+        }
+        bounds[0] = start;
+        for (int b = 0; b < BUCKETS; b++) { // 计算每个桶的起始位置。
+            if (bounds[b + 1] == end - start) { // 所有键都在同一个桶中，不需要移动。
+                Arrays.fill(bounds, 0, b + 1, start);
+                Arrays.fill(bounds, b + 1, BUCKETS + 1, end);
+                return;
+            }
+            bounds[b + 1] += bounds[b];
+        }
+        System.arraycopy(bounds, 0, next, 0, BUCKETS);
+        for (int b = 0; b < BUCKETS - 1; b++) { // 前面的桶都放好之后，最后一个桶自然也放好了。
+            int bucket_end = bounds[b + 1];
+            while (next[b] < bucket_end) { // 沿着置换环把元素放到所在桶的下一个空位上，直到换回一个属于桶b的元素。
+                T key = keys[next[b]];
+                int db = cache[next[b] - start];
+                while (db != b) {
+                    int i = next[db]++;
+                    T tmp = keys[i];
+                    keys[i] = key;
+                    key = tmp;
+                    db = cache[i - start];
+                }
+                keys[next[b]++] = key;
+            }
+        }
+    }
+
+    /**
+     * 第d个字符所在的桶：已经结束的键为0，小于255的字符c为c + 1，其余字符为RADIX。
+     */
+    private static int bucket(CharSequence key, int d) {
+        return d < key.length() ? Math.min(key.charAt(d) + 1, RADIX) : 0;
+    }
+
+    /**
+     * 第d个字符，键已经结束时返回-1。
+     */
+    private static int charAt(CharSequence key, int d) {
+        return d < key.length() ? key.charAt(d) : -1;
+    }
+
+    /**
+     * 从第d个字符开始比较两个键。
+     */
+    private static int compare(CharSequence a, CharSequence b, int d) {
+        int len = Math.min(a.length(), b.length());
+        for (int i = d; i < len; i++) {
+            int diff = a.charAt(i) - b.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return a.length() - b.length();
+    }
+
+    private static <T extends CharSequence> int median(T[] keys, int i, int j, int k, int d) {
+        int a = charAt(keys[i], d);
+        int b = charAt(keys[j], d);
+        int c = charAt(keys[k], d);
+        return a < b ? (b < c ? j : a < c ? k : i) : (b > c ? j : a > c ? k : i);
+    }
+
+    private static <T> void swap(T[] keys, int i, int j) {
+        T tmp = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tmp;
+    }
+
+    /**
+     * 并行排序任务，对区间[start, end)分桶，较大的桶拆分为子任务。
+     */
+    private static class CharSequenceTask<T extends CharSequence> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] keys;
+        private final int start;
+        private final int end;
+        private final int d;
+
+        CharSequenceTask(T[] keys, int start, int end, int d) {
+            this.keys = keys;
+            this.start = start;
+            this.end = end;
+            this.d = d;
+        }
+
+        @Override
+        protected void compute() {
+            int[] bounds = new int[BUCKETS + 1];
+            int[] next = new int[BUCKETS];
+            short[] cache = new short[end - start];
+            int d = this.d;
+            distribute(keys, start, end, d, bounds, next, cache);
+            int b;
+            while ((b = single(bounds, end - start)) > 0 && b < BUCKETS - 1) { // 公共前缀，不拆分任务，直接处理下一个字符。
+                distribute(keys, start, end, ++d, bounds, next, cache);
+            }
+            List<CharSequenceTask<T>> tasks = new ArrayList<>();
+            int[] sub_bounds = null;
+            int[] sub_next = null;
+            for (b = 1; b < BUCKETS; b++) {
+                int lo = bounds[b];
+                int hi = bounds[b + 1];
+                if (hi - lo < 2) continue;
+                if (b == BUCKETS - 1) {
+                    threeWayQuickSort(keys, lo, hi - 1, d);
+                } else if (hi - lo >= PARALLEL_THRESHOLD) {
+                    tasks.add(new CharSequenceTask<>(keys, lo, hi, d + 1));
+                } else {
+                    if (sub_bounds == null) {
+                        sub_bounds = new int[BUCKETS + 1];
+                        sub_next = new int[BUCKETS];
+                    }
+                    sort(keys, lo, hi, d + 1, sub_bounds, sub_next, cache);
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+}
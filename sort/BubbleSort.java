@@ -22,6 +22,15 @@ public class BubbleSort {
      * @param nums 待排序序列
      */
     public static void bubbleSort(int[] nums) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("bubbleSort", nums.length, () -> sort(nums));
+            return;
+        }
+        sort(nums);
+    }
+
+    private static void sort(int[] nums) {
+        long swaps = 0;
         for (int i = 0; i < nums.length; i++) {
             boolean flag = true; // 有序标志位。
             for (int j = 0; j < nums.length - i - 1; j++) {
@@ -30,8 +39,15 @@ public class BubbleSort {
                     nums[j] = nums[j + 1];
                     nums[j + 1] = tmp;
                     flag = false;
+                    if (SortMetrics.ENABLED) swaps++;
                 }
             }
+            if (SortMetrics.ENABLED) {
+                SortMetrics.Probe probe = SortMetrics.probe();
+                probe.comparisons += Math.max(nums.length - i - 1, 0);
+                probe.moves += swaps;
+                swaps = 0;
+            }
             if (flag) { // 如果未排序序列有序，则结束排序。
                 return;
             }
@@ -1,7 +1,7 @@
 package cn.ning.algorithm.sort;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 public class BucketSort {
     public static void main(String[] args) {
@@ -12,53 +12,133 @@ public class BucketSort {
         System.out.println(Arrays.toString(nums));
     }
 
+    private static final int BUCKET_SIZE = 4; // 每个桶中元素的期望个数。
+    private static final int INSERTION_THRESHOLD = 32; // 桶中元素个数不超过该值时采用插入排序。
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // 元素个数不超过该值时串行排序。
+
+    /**
+     * 默认的桶内排序：小桶采用插入排序，大桶（元素分布不均匀时）采用内省排序，避免退化为O(n^2)。
+     */
+    private static final RangeSorter DEFAULT_SORTER = (nums, start, end) -> {
+        if (end - start < INSERTION_THRESHOLD) {
+            InsertSort.insertSort(nums, start, end);
+        } else {
+            QuickSort.introSort(nums, start, end);
+        }
+    };
+
     /**
      * 桶排序
      * 原理：将待排序序列均匀分到k个区间或桶内，再在每个桶内分别进行排序，最后将所有的桶内元素合并成一个有序序列。
-     * 时间复杂度：最坏O(n^2)，平均O(n+k)，k为桶的数量。
+     *      桶的个数由元素个数和取值范围共同决定：每个桶平均约BUCKET_SIZE个元素，且每个桶的区间宽度不小于1。
+     *      所有的桶存放在一个连续的辅助序列中：第一次遍历统计每个桶的元素个数，得到每个桶的起始位置，第二次遍历
+     *      将元素分配到桶中，避免了装箱和动态扩容。
+     * 时间复杂度：平均O(n+k)，k为桶的数量；最坏取决于桶内排序，默认为O(nlogn)。
      * 空间复杂度：O(n+k)
      * 稳定性取决于桶内排序的稳定性。
      * @param nums 待排序序列
      */
     public static void bucketSort(int[] nums) {
+        bucketSort(nums, DEFAULT_SORTER);
+    }
+
+    /**
+     * 桶排序，桶内排序方法由调用者指定。
+     * @param nums 待排序序列
+     * @param sorter 桶内排序方法
+     */
+    public static void bucketSort(int[] nums, RangeSorter sorter) {
+        int[] bounds = scatter(nums);
+        if (bounds == null) return;
+        for (int i = 0; i < bounds.length - 1; i++) {
+            if (bounds[i + 1] - bounds[i] > 1) {
+                sorter.sort(nums, bounds[i], bounds[i + 1] - 1); // 单个桶内进行排序。
+            }
+        }
+    }
+
+    /**
+     * 并行桶排序，使用公共ForkJoinPool和默认的桶内排序。
+     * @param nums 待排序序列
+     */
+    public static void parallelBucketSort(int[] nums) {
+        parallelBucketSort(nums, DEFAULT_SORTER, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行桶排序：各个桶之间相互独立，按照元素个数将所有桶均匀地分给各线程，并行地进行桶内排序。
+     * @param nums 待排序序列
+     * @param sorter 桶内排序方法
+     * @param pool 执行任务的线程池
+     */
+    public static void parallelBucketSort(int[] nums, RangeSorter sorter, ForkJoinPool pool) {
+        int threads = pool.getParallelism();
+        if (nums.length <= PARALLEL_THRESHOLD || threads < 2) {
+            bucketSort(nums, sorter);
+            return;
+        }
+        int[] bounds = scatter(nums);
+        if (bounds == null) return;
+        int[] split = ForkJoinTasks.split(nums.length, threads);
+        ForkJoinTasks.invokeAll(pool, threads, t -> {
+            // 起始位置落在[split[t], split[t + 1])中的桶由第t个线程处理。
+            for (int i = firstBucket(bounds, split[t]); i < bounds.length - 1 && bounds[i] < split[t + 1]; i++) {
+                if (bounds[i + 1] - bounds[i] > 1) {
+                    sorter.sort(nums, bounds[i], bounds[i + 1] - 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * 将元素分配到桶中（稳定），并写回原序列。
+     * @param nums 待排序序列
+     * @return 每个桶在序列中的区间，第i个桶为[bounds[i], bounds[i + 1])；序列无需排序时返回null
+     */
+    private static int[] scatter(int[] nums) {
+        int n = nums.length;
+        if (n < 2) return null;
         int max_num = nums[0]; // 序列最大元素。
         int min_num = nums[0]; // 序列最小元素。
         for (int i : nums) {
             max_num = i > max_num ? i : max_num;
             min_num = i < min_num ? i : min_num;
         }
-        int step = 10; // 区间间隔。
-        int bucket_num = max_num / step - min_num / step + 1; // 桶的个数。
-        ArrayList<ArrayList<Integer>> buckets = new ArrayList<>(); // 创建桶。
-        for (int i = 0; i < bucket_num; i++) {
-            buckets.add(new ArrayList<>());
+        if (max_num == min_num) return null;
+        long range = (long) max_num - min_num + 1;
+        int bucket_num = (int) Math.min(range, Math.max(n / BUCKET_SIZE, 1)); // 桶的个数。
+        long step = (range + bucket_num - 1) / bucket_num; // 区间间隔。
+        bucket_num = (int) ((range + step - 1) / step);
+        int[] bounds = new int[bucket_num + 1];
+        for (int num : nums) { // 统计每个桶的元素个数。
+            bounds[(int) ((num - (long) min_num) / step) + 1]++;
         }
-        for (int num : nums) {
-            (buckets.get((num - min_num) / step)).add(num);
+        for (int i = 1; i <= bucket_num; i++) { // 计算每个桶的起始位置。
+            bounds[i] += bounds[i - 1];
         }
-        ArrayList<Integer> bucket;
-        int index = 0;
-        for (int i = 0; i < bucket_num; i++) {
-            bucket = buckets.get(i);
-            singleBucketSort(bucket); // 单个桶内进行排序。
-            for (int j : bucket) {
-                nums[index++] = j; // 将桶内元素放回有序序列。
-            }
+        int[] buckets = new int[n]; // 所有的桶。
+        int[] index = Arrays.copyOf(bounds, bucket_num);
+        for (int num : nums) {
+            buckets[index[(int) ((num - (long) min_num) / step)]++] = num;
         }
+        System.arraycopy(buckets, 0, nums, 0, n);
+        return bounds;
     }
 
     /**
-     * 单个桶内进行插入排序
-     * @param bucket 桶
+     * 第一个起始位置不小于pos的桶。
      */
-    private static void singleBucketSort(ArrayList<Integer> bucket) {
-        for (int i = bucket.size() - 2; i >= 0; i--) {
-            int index = i + 1;
-            int tmp = bucket.get(i);
-            while (index < bucket.size() && tmp >bucket.get(index)) {
-                bucket.set(index - 1, bucket.get(index++));
+    private static int firstBucket(int[] bounds, int pos) {
+        int start = 0;
+        int end = bounds.length - 1;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (bounds[mid] < pos) {
+                start = mid + 1;
+            } else {
+                end = mid;
             }
-            bucket.set(index - 1, tmp);
         }
+        return start;
     }
 }
@@ -1,16 +1,27 @@
 package cn.ning.algorithm.sort;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
 public class CountingSort {
     public static void main(String[] args) {
         int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
                 9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        int[] copy = nums.clone();
         countingSort(nums, 200);
         System.out.print("countingSort: ");
         System.out.println(Arrays.toString(nums));
+        copy[0] = -100;
+        countingSort(copy);
+        System.out.print("countingSort(auto range): ");
+        System.out.println(Arrays.toString(copy));
     }
 
+    private static final int MAX_RANGE = Integer.MAX_VALUE - 8; // 计数数组的最大长度。
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // 元素个数不超过该值时串行排序。
+    private static final int RADIX_BITS = 11; // 并行排序时取值范围大于元素个数则改用基数排序，每个数位的位数。
+
     /**
      * 计数排序
      * 计数排序是一种稳定的线性时间排序算法。
@@ -38,4 +49,206 @@ public class CountingSort {
         }
         System.arraycopy(res, 0, nums, 0, res.length);
     }
+
+    /**
+     * 计数排序，自动确定元素的取值范围。
+     * 原理：先找出序列的最小值min和最大值max，只对[min, max]进行计数（支持负数）。没有附带数据时，相等的元素
+     *      无法区分，因此不需要辅助序列，直接按照计数从小到大把元素写回原序列。
+     * 时间复杂度：O(n+k)，k = max - min + 1。
+     * 空间复杂度：O(k)。
+     * @param nums 待排序序列
+     */
+    public static void countingSort(int[] nums) {
+        countingSort(nums, 0, nums.length - 1, null);
+    }
+
+    /**
+     * 计数排序，对序列的一个区间排序，使用调用者提供的计数数组，不分配内存。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param count 计数数组，长度不小于max - min + 1，为null时自动分配
+     * @throws IllegalArgumentException 如果取值范围过大，或计数数组长度不足
+     */
+    public static void countingSort(int[] nums, int start, int end, int[] count) {
+        if (start >= end) return;
+        int min = nums[start];
+        int max = nums[start];
+        for (int i = start + 1; i <= end; i++) {
+            min = Math.min(min, nums[i]);
+            max = Math.max(max, nums[i]);
+        }
+        int range = range(min, max);
+        count = scratch(count, range);
+        for (int i = start; i <= end; i++) { // 统计每个元素出现的次数。
+            count[nums[i] - min]++;
+        }
+        int index = start;
+        for (int j = 0; j < range; j++) { // 按照计数写回原序列，同时清零计数器以便复用。
+            int c = count[j];
+            if (c != 0) {
+                Arrays.fill(nums, index, index + c, j + min);
+                index += c;
+                count[j] = 0;
+            }
+        }
+    }
+
+    /**
+     * 计数排序，对键排序的同时对附带的数据（如元素的原始索引）做相同的移动。
+     * @param keys 待排序的键
+     * @param payload 附带的数据，长度与keys相同
+     */
+    public static void countingSort(int[] keys, int[] payload) {
+        countingSort(keys, payload, null, null, null);
+    }
+
+    /**
+     * 计数排序，对键排序的同时对附带的数据做相同的移动，使用调用者提供的辅助空间，不分配内存。
+     * @param keys 待排序的键
+     * @param payload 附带的数据，长度与keys相同
+     * @param count 计数数组，长度不小于max - min + 2，为null时自动分配
+     * @param keys_tmp 键的辅助空间，长度不小于keys，为null时自动分配
+     * @param payload_tmp 附带数据的辅助空间，长度不小于keys，为null时自动分配
+     * @throws IllegalArgumentException 如果取值范围过大，或辅助空间长度不足
+     */
+    public static void countingSort(int[] keys, int[] payload, int[] count, int[] keys_tmp, int[] payload_tmp) {
+        int n = keys.length;
+        if (payload.length != n) {
+            throw new IllegalArgumentException("The array length is not equal.");
+        }
+        if (n < 2) return;
+        int min = keys[0];
+        int max = keys[0];
+        for (int key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        int range = range(min, max);
+        count = scratch(count, range + 1);
+        keys_tmp = scratch(keys_tmp, n);
+        payload_tmp = scratch(payload_tmp, n);
+        for (int key : keys) {
+            count[key - min + 1]++;
+        }
+        for (int j = 1; j <= range; j++) { // 计算每个元素的起始位置。
+            count[j] += count[j - 1];
+        }
+        for (int i = 0; i < n; i++) { // 元素归位，从前往后保证稳定。
+            int pos = count[keys[i] - min]++;
+            keys_tmp[pos] = keys[i];
+            payload_tmp[pos] = payload[i];
+        }
+        System.arraycopy(keys_tmp, 0, keys, 0, n);
+        System.arraycopy(payload_tmp, 0, payload, 0, n);
+        Arrays.fill(count, 0, range + 1, 0);
+    }
+
+    /**
+     * 并行计数排序，使用公共ForkJoinPool。
+     * @param nums 待排序序列
+     */
+    public static void parallelCountingSort(int[] nums) {
+        parallelCountingSort(nums, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行计数排序
+     * 原理：各线程分别统计序列中一块的计数，然后汇总；写回时把取值范围分成若干段，各线程并行地写回自己负责的
+     *      取值段。适用于元素很多而取值范围较小的序列。
+     *      每个线程需要一个长度为取值范围的计数数组，因此线程数不超过n / 取值范围，计数数组的总长度不超过n；
+     *      取值范围大于n时改用并行基数排序。
+     * @param nums 待排序序列
+     * @param pool 执行任务的线程池
+     */
+    public static void parallelCountingSort(int[] nums, ForkJoinPool pool) {
+        int n = nums.length;
+        if (n < 2) return;
+        int threads = n <= PARALLEL_THRESHOLD ? 1 : pool.getParallelism();
+        int[] min_bounds = ForkJoinTasks.split(n, threads);
+        int[] mins = new int[threads];
+        int[] maxs = new int[threads];
+        IntConsumer min_max = t -> {
+            int min = nums[min_bounds[t]];
+            int max = min;
+            for (int i = min_bounds[t] + 1; i < min_bounds[t + 1]; i++) {
+                min = Math.min(min, nums[i]);
+                max = Math.max(max, nums[i]);
+            }
+            mins[t] = min;
+            maxs[t] = max;
+        };
+        if (threads < 2) {
+            min_max.accept(0);
+        } else {
+            ForkJoinTasks.invokeAll(pool, threads, min_max);
+        }
+        int min = Arrays.stream(mins).min().getAsInt();
+        int max = Arrays.stream(maxs).max().getAsInt();
+        // 串行时同样先检查取值范围：取值范围大于n时计数数组比序列本身还大，全范围的int还会超过MAX_RANGE。
+        if ((long) max - min >= n) {
+            RadixSort.parallelRadixSort(nums, null, RADIX_BITS, pool);
+            return;
+        }
+        int range = range(min, max);
+        threads = Math.min(threads, n / range);
+        if (threads < 2) {
+            countingSort(nums, 0, n - 1, null);
+            return;
+        }
+        int[] bounds = ForkJoinTasks.split(n, threads);
+        int[][] counts = new int[threads][range];
+        ForkJoinTasks.invokeAll(pool, threads, t -> {
+            int[] count = counts[t];
+            for (int i = bounds[t]; i < bounds[t + 1]; i++) {
+                count[nums[i] - min]++;
+            }
+        });
+        int[] count = counts[0];
+        for (int t = 1; t < threads; t++) { // 汇总计数。
+            for (int j = 0; j < range; j++) {
+                count[j] += counts[t][j];
+            }
+        }
+        int[] value_bounds = ForkJoinTasks.split(range, threads);
+        int[] offsets = new int[threads + 1]; // 每个取值段在结果中的起始位置。
+        for (int t = 0; t < threads; t++) {
+            int sum = 0;
+            for (int j = value_bounds[t]; j < value_bounds[t + 1]; j++) {
+                sum += count[j];
+            }
+            offsets[t + 1] = offsets[t] + sum;
+        }
+        ForkJoinTasks.invokeAll(pool, threads, t -> {
+            int index = offsets[t];
+            for (int j = value_bounds[t]; j < value_bounds[t + 1]; j++) {
+                Arrays.fill(nums, index, index + count[j], j + min);
+                index += count[j];
+            }
+        });
+    }
+
+    /**
+     * 取值范围[min, max]的大小。
+     */
+    private static int range(int min, int max) {
+        long range = (long) max - min + 1;
+        if (range > MAX_RANGE) {
+            throw new IllegalArgumentException("The range of values is too large: " + range);
+        }
+        return (int) range;
+    }
+
+    /**
+     * 检查调用者提供的辅助空间，为null时分配。调用者提供的计数数组必须全部为0，排序结束后也会被清零。
+     */
+    private static int[] scratch(int[] buf, int len) {
+        if (buf == null) {
+            return new int[len];
+        }
+        if (buf.length < len) {
+            throw new IllegalArgumentException("The scratch buffer is too small: " + buf.length + " < " + len);
+        }
+        return buf;
+    }
 }
@@ -0,0 +1,232 @@
+package cn.ning.algorithm.sort;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * 外部归并排序
+ * 原理：数据量超过内存时，按内存预算把文件分成若干块，每块读入内存排序后作为一个有序段（run）写入临时文件；
+ *      再把所有有序段以内存映射的方式打开，用败者树做一次k路归并，写出最终结果。有序段过多时先分组归并。
+ *      每个有序段按固定大小的窗口依次映射，归并得到的有序段超过2GB（一个MappedByteBuffer的上限）也没有问题。
+ * 文件格式：连续的int，大端字节序（与DataOutputStream一致）。临时文件使用本机字节序。
+ * 时间复杂度O(nlogn)，其中归并阶段每个元素约log2(k)次比较，k为有序段个数。
+ * 空间复杂度：内存O(memory)，磁盘O(n)。
+ * 不稳定（int没有稳定性的区别）。
+ */
+public class ExternalSort {
+
+    public static void main(String[] args) throws IOException {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        Path input = Files.createTempFile("external", ".in");
+        Path output = Files.createTempFile("external", ".out");
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(nums.length * Integer.BYTES);
+            buffer.asIntBuffer().put(nums);
+            Files.write(input, buffer.array());
+            sort(input, output, 8 * Long.BYTES, DEFAULT_TEMP_DIR); // 每个有序段8个元素，共5个有序段。
+            ByteBuffer.wrap(Files.readAllBytes(output)).asIntBuffer().get(nums);
+            System.out.print("externalSort: ");
+            System.out.println(Arrays.toString(nums));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    public static final long DEFAULT_MEMORY = 64L << 20; // 默认内存预算64MB。
+    public static final Path DEFAULT_TEMP_DIR = Paths.get(System.getProperty("java.io.tmpdir"));
+    private static final int BUFFER_SIZE = 1 << 20; // 读写文件所用直接缓冲区的字节数。
+    /* 每个元素占用的内存：分块本身和归并排序的辅助空间各一个int。 */
+    private static final int BYTES_PER_ELEMENT = 2 * Integer.BYTES;
+    /* 分块排序得到的有序段的最大长度（2GB）。 */
+    private static final int MAX_RUN_LENGTH = Integer.MAX_VALUE / Integer.BYTES;
+    /* 有序段每次映射的字节数，必须是4的倍数。分组归并得到的有序段可能超过2GB，不能整体映射。 */
+    private static final long MAP_WINDOW = 64L << 20;
+    /* 一次归并的最大路数，有序段更多时先分组归并为较长的有序段，避免同时映射过多文件。 */
+    private static final int MAX_MERGE_WAYS = 512;
+
+    /**
+     * 外部排序，使用默认的内存预算和临时目录。
+     * @param input 待排序文件
+     * @param output 结果文件，已存在时被覆盖
+     */
+    public static void sort(Path input, Path output) throws IOException {
+        sort(input, output, DEFAULT_MEMORY, DEFAULT_TEMP_DIR);
+    }
+
+    /**
+     * 外部排序。
+     * @param input 待排序文件，长度必须是4的倍数
+     * @param output 结果文件，已存在时被覆盖，不能与input相同
+     * @param memory 内存预算（字节），决定每个有序段的长度，不含读写缓冲区
+     * @param temp_dir 存放有序段的临时目录，排序结束后临时文件会被删除
+     */
+    public static void sort(Path input, Path output, long memory, Path temp_dir) throws IOException {
+        if (memory < BYTES_PER_ELEMENT) {
+            throw new IllegalArgumentException("memory budget too small: " + memory);
+        }
+        List<Path> runs = new ArrayList<>();
+        List<Path> temp_files = new ArrayList<>(); // 所有创建过的临时文件，出现异常时也要删除。
+        try {
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                long size = in.size();
+                if (size % Integer.BYTES != 0) {
+                    throw new IllegalArgumentException("file length is not a multiple of 4: " + size);
+                }
+                long total = size / Integer.BYTES;
+                int chunk_len = (int) Math.min(Math.min(memory / BYTES_PER_ELEMENT, MAX_RUN_LENGTH), total);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                int[] chunk = new int[chunk_len];
+                if (total == chunk_len) { // 只有一个有序段，直接写入结果文件。
+                    read(in, buffer, chunk);
+                    MergeSort.parallelMergeSort(chunk);
+                    write(output, buffer, ByteOrder.BIG_ENDIAN, chunk);
+                    return;
+                }
+                for (long remaining = total; remaining > 0; remaining -= chunk_len) {
+                    int[] nums = remaining >= chunk_len ? chunk : new int[(int) remaining];
+                    read(in, buffer, nums);
+                    MergeSort.parallelMergeSort(nums);
+                    Path run = Files.createTempFile(temp_dir, "run", ".bin");
+                    runs.add(run);
+                    temp_files.add(run);
+                    write(run, buffer, ByteOrder.nativeOrder(), nums);
+                }
+            }
+            while (runs.size() > MAX_MERGE_WAYS) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_MERGE_WAYS) {
+                    List<Path> group = runs.subList(i, Math.min(i + MAX_MERGE_WAYS, runs.size()));
+                    Path run = Files.createTempFile(temp_dir, "run", ".bin");
+                    temp_files.add(run);
+                    merged.add(run);
+                    merge(group, run, ByteOrder.nativeOrder());
+                    for (Path p : group) {
+                        Files.deleteIfExists(p);
+                    }
+                }
+                runs = merged;
+            }
+            merge(runs, output, ByteOrder.BIG_ENDIAN);
+        } finally {
+            for (Path p : temp_files) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * 从文件的当前位置按大端字节序读满nums。
+     */
+    private static void read(FileChannel in, ByteBuffer buffer, int[] nums) throws IOException {
+        int offset = 0;
+        while (offset < nums.length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (long) (nums.length - offset) * Integer.BYTES));
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer) < 0) throw new IOException("unexpected end of file");
+            }
+            buffer.flip();
+            int count = buffer.remaining() / Integer.BYTES;
+            buffer.order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(nums, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * 把nums按指定字节序写入文件。
+     */
+    private static void write(Path path, ByteBuffer buffer, ByteOrder order, int[] nums) throws IOException {
+        buffer.order(order);
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int offset = 0;
+            while (offset < nums.length) {
+                buffer.clear();
+                int count = Math.min(buffer.capacity() / Integer.BYTES, nums.length - offset);
+                buffer.asIntBuffer().put(nums, offset, count);
+                buffer.limit(count * Integer.BYTES);
+                while (buffer.hasRemaining()) out.write(buffer);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * 把所有有序段映射到内存，用KWayMerge的败者树做k路归并，结果按指定字节序写入output。
+     */
+    private static void merge(List<Path> runs, Path output, ByteOrder order) throws IOException {
+        int k = runs.size();
+        PrimitiveIterator.OfInt[] sources = new PrimitiveIterator.OfInt[k];
+        for (int i = 0; i < k; i++) {
+            sources[i] = new RunReader(runs.get(i));
+        }
+        PrimitiveIterator.OfInt merged = KWayMerge.merge(sources);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(order);
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (merged.hasNext()) {
+                buffer.putInt(merged.nextInt());
+                if (!buffer.hasRemaining()) flush(out, buffer);
+            }
+            flush(out, buffer);
+        }
+    }
+
+    /**
+     * 按窗口依次映射一个有序段：当前窗口读完后映射下一个窗口，每个窗口不超过MAP_WINDOW字节。
+     * 映射建立之后即使关闭通道也一直有效，因此每次映射后立即关闭通道，不会同时打开k个文件。
+     */
+    private static final class RunReader implements PrimitiveIterator.OfInt {
+        private final Path run;
+        private final long size;
+        private long position; // 下一个窗口在文件中的起始位置。
+        private IntBuffer window = IntBuffer.allocate(0);
+
+        RunReader(Path run) throws IOException {
+            this.run = run;
+            this.size = Files.size(run);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (window.hasRemaining()) return true;
+            if (position >= size) return false;
+            long len = Math.min(MAP_WINDOW, size - position);
+            try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ)) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, len)
+                        .order(ByteOrder.nativeOrder()).asIntBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position += len;
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return window.get();
+        }
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) out.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package cn.ning.algorithm.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * 并行排序的公共方法。
+ */
+final class ForkJoinTasks {
+    private ForkJoinTasks() {}
+
+    /**
+     * 把[0, n)均匀地分成parts块，返回每一块的边界，第t块为[bounds[t], bounds[t + 1])。
+     */
+    static int[] split(int n, int parts) {
+        int[] bounds = new int[parts + 1];
+        for (int t = 0; t <= parts; t++) {
+            bounds[t] = (int) ((long) n * t / parts);
+        }
+        return bounds;
+    }
+
+    /**
+     * 在线程池中并行执行threads个任务，并等待所有任务完成。
+     */
+    static void invokeAll(ForkJoinPool pool, int threads, IntConsumer task) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            tasks.add(() -> {
+                task.accept(id);
+                return null;
+            });
+        }
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
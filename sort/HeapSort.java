@@ -21,52 +21,203 @@ public class HeapSort {
      * @param nums 未排序序列
      */
     public static void heapSort(int[] nums) {
-        buildMaxHeap(nums);
-        for (int i = nums.length - 1; i > 0; i--) {
-            int tmp = nums[0];
-            nums[0] = nums[i];
-            nums[i] = tmp;
-            maxHeapify(nums, 0, i);
+        heapSort(nums, 0, nums.length - 1);
+    }
+
+    /**
+     * 对序列的一个区间进行堆排序。
+     * @param nums 未排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void heapSort(int[] nums, int start, int end) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("heapSort", end - start + 1, () -> sort(nums, start, end));
+            return;
         }
+        sort(nums, start, end);
+    }
+
+    private static void sort(int[] nums, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) { // 建堆。
+            maxHeapify(nums, start, i, len, nums[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            int tmp = nums[start + i];
+            nums[start + i] = nums[start];
+            maxHeapify(nums, start, 0, i, tmp);
+        }
+        if (SortMetrics.ENABLED) SortMetrics.probe().moves += Math.max(len - 1, 0); // 堆顶移到末尾。
     }
 
     /**
-     * 使一个子树都是二叉最大堆的二叉树保持最大堆的特性。
+     * 将值x放到以i为根、子树都是最大堆的二叉树中（i处为空位），使其保持最大堆的特性。
+     * 采用迭代实现，较大的子结点直接上移填补空位，不做交换。
      * @param nums 完全二叉树序列
-     * @param i 二叉树的根结点索引
+     * @param start 堆在序列中的起始位置
+     * @param i 二叉树的根结点索引（相对于start）
+     * @param len 堆的大小
+     * @param x 待放入的值
      */
-    private static void maxHeapify(int[] nums, int i, int len) {
-        if (i * 2 + 1 > len - 1) return;
-        int parent = nums[i];
-        int left = nums[i*2 + 1];
-        if (i * 2 + 2 > len -1) {
-            if (left > parent) {
-                nums[i] = left;
-                nums[i*2 + 1] = parent;
-                maxHeapify(nums, i * 2 + 1, len);
+    private static void maxHeapify(int[] nums, int start, int i, int len, int x) {
+        int comparisons = 0;
+        int moves = 0;
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (SortMetrics.ENABLED) comparisons += child + 1 < len ? 2 : 1; // 两个子结点比较一次，再与x比较一次。
+            if (child + 1 < len && nums[start + child + 1] > nums[start + child]) {
+                child++;
             }
-            return;
+            if (nums[start + child] <= x) break;
+            nums[start + i] = nums[start + child];
+            i = child;
+            if (SortMetrics.ENABLED) moves++;
         }
-        int right = nums[i * 2 + 2];
-        if (left >= right && left > parent) {
-            nums[i] = left;
-            nums[i*2 + 1] = parent;
-            maxHeapify(nums, i * 2 + 1, len);
-        } else if (right >= left && right > parent) {
-            nums[i] = right;
-            nums[i * 2 + 2] = parent;
-            maxHeapify(nums, i*2 + 2, len);
+        nums[start + i] = x;
+        if (SortMetrics.ENABLED) {
+            SortMetrics.Probe probe = SortMetrics.probe();
+            probe.comparisons += comparisons;
+            probe.moves += moves;
         }
     }
+
     /**
-     * 将一个完全二叉树变成二叉堆（最大堆）。
-     * @param nums 完全二叉树序列
+     * 对键的一个区间进行堆排序，附带的数据做相同的移动。
+     * @param keys 待排序的键
+     * @param payload 附带的数据
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void heapSort(int[] keys, int[] payload, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(keys, payload, start, i, len, keys[start + i], payload[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            int key = keys[start + i];
+            int data = payload[start + i];
+            keys[start + i] = keys[start];
+            payload[start + i] = payload[start];
+            maxHeapify(keys, payload, start, 0, i, key, data);
+        }
+    }
+
+    /**
+     * 与maxHeapify(int[], int, int, int, int)相同，附带的数据跟随键移动。
+     */
+    private static void maxHeapify(int[] keys, int[] payload, int start, int i, int len, int x, int data) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && keys[start + child + 1] > keys[start + child]) {
+                child++;
+            }
+            if (keys[start + child] <= x) break;
+            keys[start + i] = keys[start + child];
+            payload[start + i] = payload[start + child];
+            i = child;
+        }
+        keys[start + i] = x;
+        payload[start + i] = data;
+    }
+
+    /**
+     * d叉堆排序
+     * 原理：d叉堆（d = 4或8）的高度只有二叉堆的1/2或1/3，一个结点的所有子结点在内存中相邻，通常位于同一个缓存
+     *      行中。下沉时每一层虽然要多比较几个子结点，但访问的缓存行数大大减少，因此在大序列上明显快于二叉堆。
+     * 时间复杂度：O(nlogn)。
+     * 空间复杂度：O(1)。
+     * 不稳定。
+     * @param nums 未排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param arity 堆的叉数，取值2、4或8
      */
-    private static void buildMaxHeap(int[] nums) {
-        int i = nums.length / 2 - 1;
-        while (i >= 0) {
-            maxHeapify(nums, i, nums.length);
-            i--;
+    public static void heapSort(int[] nums, int start, int end, int arity) {
+        if (arity != 2 && arity != 4 && arity != 8) {
+            throw new IllegalArgumentException("arity must be 2, 4 or 8: " + arity);
+        }
+        int shift = Integer.numberOfTrailingZeros(arity); // 叉数为2的幂，用移位代替乘除法。
+        int len = end - start + 1;
+        for (int i = (len - 2) >> shift; i >= 0 && len > 1; i--) { // 建堆。
+            siftDown(nums, start, i, len, shift, nums[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            int tmp = nums[start + i];
+            nums[start + i] = nums[start];
+            siftDown(nums, start, 0, i, shift, tmp);
+        }
+    }
+
+    /**
+     * 将值x放到以i为根、子树都是最大堆的d叉树中（i处为空位），使其保持最大堆的特性。
+     * @param nums 完全d叉树序列
+     * @param start 堆在序列中的起始位置
+     * @param i 根结点索引（相对于start）
+     * @param len 堆的大小
+     * @param shift 堆的叉数为2^shift
+     * @param x 待放入的值
+     */
+    private static void siftDown(int[] nums, int start, int i, int len, int shift, int x) {
+        int child;
+        while ((child = (i << shift) + 1) < len) {
+            int last = Math.min(child + (1 << shift), len);
+            int max = child;
+            for (int k = child + 1; k < last; k++) { // 找到最大的子结点。
+                if (nums[start + k] > nums[start + max]) {
+                    max = k;
+                }
+            }
+            if (nums[start + max] <= x) break;
+            nums[start + i] = nums[start + max];
+            i = max;
+        }
+        nums[start + i] = x;
+    }
+
+    /**
+     * 自底向上堆排序（Floyd）
+     * 原理：传统的下沉操作在每一层都要比较两个子结点，再与待下沉的元素比较。堆排序中从末尾换到堆顶的元素通常
+     *      很小，最终几乎总是落到叶子附近，因此可以先不与它比较，沿着较大的子结点一路找到叶子，再从叶子向上找
+     *      到它的位置，每一层只需一次比较，比较次数约减少一半。
+     *      代价是每次都要访问到叶子一层，当序列远大于缓存时，这几层的缓存缺失会抵消比较次数的收益；此时应使用
+     *      d叉堆。比较代价高（如比较器排序）或序列能放入缓存时，自底向上更快。
+     * 时间复杂度：O(nlogn)，比较次数约为nlogn。
+     * 空间复杂度：O(1)。
+     * 不稳定。
+     * @param nums 未排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void bottomUpHeapSort(int[] nums, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) { // 建堆。
+            maxHeapify(nums, start, i, len, nums[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            int x = nums[start + i];
+            nums[start + i] = nums[start];
+            // 沿着较大的子结点一直找到叶子结点。
+            int j = 0;
+            int child;
+            while ((child = j * 2 + 1) < i - 1) {
+                j = nums[start + child + 1] > nums[start + child] ? child + 1 : child;
+            }
+            if (child == i - 1) {
+                j = child;
+            }
+            // 从叶子结点向上找到x的位置。
+            while (j > 0 && nums[start + j] < x) {
+                j = (j - 1) / 2;
+            }
+            // 路径上的元素依次上移一层，x放入空出的位置。
+            while (j > 0) {
+                int tmp = nums[start + j];
+                nums[start + j] = x;
+                x = tmp;
+                j = (j - 1) / 2;
+            }
+            nums[start] = x;
         }
     }
 }
@@ -33,13 +33,102 @@ public class InsertSort {
             nums[unindex] = tmp;
         }*/
         // 第二种写法。
-        for (int i = 1; i < nums.length; i++) {
+        insertSort(nums, 0, nums.length - 1);
+    }
+
+    /**
+     * 对序列的一个区间进行插入排序。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void insertSort(int[] nums, int start, int end) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("insertSort", end - start + 1, () -> sort(nums, start, end));
+            return;
+        }
+        sort(nums, start, end);
+    }
+
+    private static void sort(int[] nums, int start, int end) {
+        long comparisons = 0;
+        long moves = 0;
+        for (int i = start + 1; i <= end; i++) {
             int unindex = i;
             int index = unindex - 1;
             int tmp = nums[unindex];
             // 为了减少比较此数，可以采用二分查找来确定新元素的位置。
-            while (index >= 0  && tmp < nums[index]) nums[unindex--] = nums[index--];
+            while (index >= start  && tmp < nums[index]) nums[unindex--] = nums[index--];
             nums[unindex] = tmp;
+            if (SortMetrics.ENABLED) { // 每次后移一次比较，没有到达区间起点时还有一次失败的比较。
+                comparisons += i - unindex + (index >= start ? 1 : 0);
+                moves += i - unindex;
+            }
+        }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.Probe probe = SortMetrics.probe();
+            probe.comparisons += comparisons;
+            probe.moves += moves;
+        }
+    }
+
+    /**
+     * 对键的一个区间进行插入排序，附带的数据做相同的移动。
+     * 稳定。
+     * @param keys 待排序的键
+     * @param payload 附带的数据
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void insertSort(int[] keys, int[] payload, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            int key = keys[i];
+            int data = payload[i];
+            int index = i - 1;
+            while (index >= start && key < keys[index]) {
+                keys[index + 1] = keys[index];
+                payload[index + 1] = payload[index];
+                index--;
+            }
+            keys[index + 1] = key;
+            payload[index + 1] = data;
+        }
+    }
+
+    /**
+     * 二分插入排序，对序列的一个区间排序。
+     * 用二分查找确定新元素的位置，比较次数降为O(nlogn)，移动次数不变。
+     * 稳定。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void binaryInsertSort(int[] nums, int start, int end) {
+        binaryInsertSort(nums, start, end, start + 1);
+    }
+
+    /**
+     * 二分插入排序，nums[start, sorted)已经有序。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param sorted 第一个未排序元素的索引
+     */
+    static void binaryInsertSort(int[] nums, int start, int end, int sorted) {
+        for (int i = Math.max(sorted, start + 1); i <= end; i++) {
+            int tmp = nums[i];
+            int left = start;
+            int right = i;
+            while (left < right) { // 找到第一个大于tmp的位置，保证稳定。
+                int mid = (left + right) >>> 1;
+                if (tmp < nums[mid]) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(nums, left, nums, left + 1, i - left);
+            nums[left] = tmp;
         }
     }
 }
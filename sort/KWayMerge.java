@@ -0,0 +1,446 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 败者树k路归并
+ * 原理：k个有序序列的当前元素作为叶子，与HeapSort中的堆一样用数组下标表示完全二叉树（叶子i位于k + i，
+ *      结点t的父结点为t / 2）。每个内部结点记录其两个子树胜者比较后的败者，tree[0]记录全局胜者（最小值）。
+ *      取出胜者后，该序列的下一个元素只需沿叶子到根的路径与各结点上的败者比较，不必像堆那样同时比较两个子结点，
+ *      每个元素恰好约log2(k)次比较，一趟完成k个序列的归并，不需要两两归并的多趟读写。
+ *      相等的元素序号小的序列优先，因此是稳定的。
+ * 时间复杂度：O(nlogk)，n为元素总数。
+ * 空间复杂度：O(k)，不含输出。
+ * 稳定。
+ */
+public class KWayMerge {
+
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        int k = 5;
+        int[][] runs = new int[k][];
+        for (int i = 0; i < k; i++) { // 分成k个有序序列。
+            runs[i] = Arrays.copyOfRange(nums, i * nums.length / k, (i + 1) * nums.length / k);
+            Arrays.sort(runs[i]);
+        }
+        System.out.print("kWayMerge: ");
+        System.out.println(Arrays.toString(merge(runs)));
+    }
+
+    /**
+     * 归并k个有序数组。
+     * @param runs 有序数组
+     * @return 归并结果
+     */
+    public static int[] merge(int[]... runs) {
+        int[] starts = new int[runs.length];
+        int[] ends = new int[runs.length];
+        long total = 0;
+        for (int i = 0; i < runs.length; i++) {
+            ends[i] = runs[i].length - 1;
+            total += runs[i].length;
+        }
+        int[] dest = new int[Math.toIntExact(total)];
+        merge(runs, starts, ends, dest, 0);
+        return dest;
+    }
+
+    /**
+     * 归并k个有序区间runs[i][starts[i], ends[i]]，结果写入dest[dest_start...]。
+     * 各区间可以属于同一个数组，但不能与输出重叠。
+     * @param runs 各区间所在的数组
+     * @param starts 区间起始索引
+     * @param ends 区间末尾索引
+     * @param dest 输出数组
+     * @param dest_start 输出的起始位置
+     */
+    public static void merge(int[][] runs, int[] starts, int[] ends, int[] dest, int dest_start) {
+        IntTree tree = new IntArrayTree(runs, starts, ends);
+        int index = dest_start;
+        while (tree.hasNext()) dest[index++] = tree.nextInt();
+    }
+
+    /**
+     * 流式归并k个有序区间，按从小到大的顺序把元素逐个交给sink，不需要输出数组。
+     * @param runs 各区间所在的数组
+     * @param starts 区间起始索引
+     * @param ends 区间末尾索引
+     * @param sink 接收归并结果
+     */
+    public static void merge(int[][] runs, int[] starts, int[] ends, IntConsumer sink) {
+        new IntArrayTree(runs, starts, ends).forEachRemaining(sink);
+    }
+
+    /**
+     * 惰性归并k个有序迭代器：每次取下一个元素时才从相应的输入中读取，适合输入和输出都是流的情况。
+     * @param sources 有序迭代器
+     * @return 按从小到大的顺序返回所有元素的迭代器
+     */
+    public static PrimitiveIterator.OfInt merge(PrimitiveIterator.OfInt... sources) {
+        return new IntIteratorTree(sources);
+    }
+
+    /**
+     * 归并k个有序数组。
+     * @param runs 有序数组
+     * @return 归并结果
+     */
+    public static long[] merge(long[]... runs) {
+        int[] starts = new int[runs.length];
+        int[] ends = new int[runs.length];
+        long total = 0;
+        for (int i = 0; i < runs.length; i++) {
+            ends[i] = runs[i].length - 1;
+            total += runs[i].length;
+        }
+        long[] dest = new long[Math.toIntExact(total)];
+        merge(runs, starts, ends, dest, 0);
+        return dest;
+    }
+
+    /**
+     * 归并k个有序区间runs[i][starts[i], ends[i]]，结果写入dest[dest_start...]。
+     * @param runs 各区间所在的数组
+     * @param starts 区间起始索引
+     * @param ends 区间末尾索引
+     * @param dest 输出数组
+     * @param dest_start 输出的起始位置
+     */
+    public static void merge(long[][] runs, int[] starts, int[] ends, long[] dest, int dest_start) {
+        LongTree tree = new LongArrayTree(runs, starts, ends);
+        int index = dest_start;
+        while (tree.hasNext()) dest[index++] = tree.nextLong();
+    }
+
+    /**
+     * 流式归并k个有序区间，按从小到大的顺序把元素逐个交给sink。
+     * @param runs 各区间所在的数组
+     * @param starts 区间起始索引
+     * @param ends 区间末尾索引
+     * @param sink 接收归并结果
+     */
+    public static void merge(long[][] runs, int[] starts, int[] ends, LongConsumer sink) {
+        new LongArrayTree(runs, starts, ends).forEachRemaining(sink);
+    }
+
+    /**
+     * 惰性归并k个有序迭代器。
+     * @param sources 有序迭代器
+     * @return 按从小到大的顺序返回所有元素的迭代器
+     */
+    public static PrimitiveIterator.OfLong merge(PrimitiveIterator.OfLong... sources) {
+        return new LongIteratorTree(sources);
+    }
+
+    /**
+     * 惰性归并k个按comparator有序的迭代器，相等的元素按输入的顺序输出。
+     * @param sources 有序迭代器
+     * @param comparator 比较器
+     * @return 按comparator从小到大返回所有元素的迭代器
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources,
+                                        Comparator<? super T> comparator) {
+        return new ObjectTree<>(sources, comparator);
+    }
+
+    /**
+     * int败者树。子类负责从第i个序列读取下一个元素。
+     * 元素与其所在序列的序号合成一个long键：高32位是元素，低32位是序号，一次long比较就同时完成了元素比较和
+     * 相等时按序号的稳定性比较。已经读完的序列i的键为(Integer.MAX_VALUE, k + i)，比任何元素都大，
+     * 不需要额外的标记和分支。结点上直接存放败者的键，调整时不必再按序号间接读取元素。
+     */
+    private abstract static class IntTree implements PrimitiveIterator.OfInt {
+        final int k;
+        private final long[] losers; // losers[t]为结点t上败者的键。
+        private long winner;
+
+        IntTree(int k) {
+            this.k = k;
+            this.losers = new long[Math.max(k, 1)];
+        }
+
+        /**
+         * 读取第i个序列的下一个元素。
+         * @return 该元素的键key(num, i)，序列已经读完时返回end(i)
+         */
+        abstract long advance(int i);
+
+        final long key(int num, int i) {
+            return (long) num << 32 | i;
+        }
+
+        final long end(int i) {
+            return (long) Integer.MAX_VALUE << 32 | (k + i);
+        }
+
+        /**
+         * 读入各序列的第一个元素，自底向上比较建树，由子类在构造完成后调用。
+         */
+        final void build() {
+            if (k == 0) return;
+            long[] winners = new long[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = advance(i);
+            }
+            for (int t = k - 1; t > 0; t--) {
+                losers[t] = Math.max(winners[2 * t], winners[2 * t + 1]);
+                winners[t] = Math.min(winners[2 * t], winners[2 * t + 1]);
+            }
+            winner = winners[1];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (int) winner < k;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int num = (int) (winner >> 32);
+            int s = (int) winner;
+            long key = advance(s);
+            for (int t = (s + k) >> 1; t > 0; t >>= 1) { // 败者留在结点上，胜者继续向上。
+                long other = losers[t];
+                losers[t] = Math.max(other, key);
+                key = Math.min(other, key);
+            }
+            winner = key;
+            return num;
+        }
+    }
+
+    private static final class IntArrayTree extends IntTree {
+        private final int[][] runs;
+        private final int[] positions;
+        private final int[] ends;
+
+        IntArrayTree(int[][] runs, int[] starts, int[] ends) {
+            super(runs.length);
+            this.runs = runs;
+            this.positions = starts.clone();
+            this.ends = ends;
+            build();
+        }
+
+        @Override
+        long advance(int i) {
+            return positions[i] <= ends[i] ? key(runs[i][positions[i]++], i) : end(i);
+        }
+    }
+
+    private static final class IntIteratorTree extends IntTree {
+        private final PrimitiveIterator.OfInt[] sources;
+
+        IntIteratorTree(PrimitiveIterator.OfInt[] sources) {
+            super(sources.length);
+            this.sources = sources;
+            build();
+        }
+
+        @Override
+        long advance(int i) {
+            return sources[i].hasNext() ? key(sources[i].nextInt(), i) : end(i);
+        }
+    }
+
+    /**
+     * long败者树。元素放不下序号，结点上分别存放败者的元素和序号，比较规则与IntTree相同：
+     * 已经读完的序列i视为元素Long.MAX_VALUE、序号k + i。
+     */
+    private abstract static class LongTree implements PrimitiveIterator.OfLong {
+        final int k;
+        private final long[] loser_nums;
+        private final int[] loser_sources;
+        private long winner_num;
+        private int winner_source;
+        long head; // advance读到的元素。
+
+        LongTree(int k) {
+            this.k = k;
+            this.loser_nums = new long[Math.max(k, 1)];
+            this.loser_sources = new int[Math.max(k, 1)];
+        }
+
+        /**
+         * 读取第i个序列的下一个元素放入head。
+         * @return 序列已经读完时返回false
+         */
+        abstract boolean advance(int i);
+
+        final void build() {
+            if (k == 0) return;
+            long[] nums = new long[2 * k];
+            int[] sources = new int[2 * k];
+            for (int i = 0; i < k; i++) {
+                boolean more = advance(i);
+                nums[k + i] = more ? head : Long.MAX_VALUE;
+                sources[k + i] = more ? i : k + i;
+            }
+            for (int t = k - 1; t > 0; t--) {
+                int a = 2 * t;
+                int b = 2 * t + 1;
+                if (nums[b] < nums[a] || (nums[b] == nums[a] && sources[b] < sources[a])) {
+                    a = b;
+                    b = 2 * t;
+                }
+                loser_nums[t] = nums[b];
+                loser_sources[t] = sources[b];
+                nums[t] = nums[a];
+                sources[t] = sources[a];
+            }
+            winner_num = nums[1];
+            winner_source = sources[1];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return winner_source < k;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long result = winner_num;
+            int s = winner_source;
+            long num = Long.MAX_VALUE;
+            int source = k + s;
+            if (advance(s)) {
+                num = head;
+                source = s;
+            }
+            for (int t = (s + k) >> 1; t > 0; t >>= 1) {
+                long other = loser_nums[t];
+                int other_source = loser_sources[t];
+                if (other < num || (other == num && other_source < source)) {
+                    loser_nums[t] = num;
+                    loser_sources[t] = source;
+                    num = other;
+                    source = other_source;
+                }
+            }
+            winner_num = num;
+            winner_source = source;
+            return result;
+        }
+    }
+
+    private static final class LongArrayTree extends LongTree {
+        private final long[][] runs;
+        private final int[] positions;
+        private final int[] ends;
+
+        LongArrayTree(long[][] runs, int[] starts, int[] ends) {
+            super(runs.length);
+            this.runs = runs;
+            this.positions = starts.clone();
+            this.ends = ends;
+            build();
+        }
+
+        @Override
+        boolean advance(int i) {
+            if (positions[i] > ends[i]) return false;
+            head = runs[i][positions[i]++];
+            return true;
+        }
+    }
+
+    private static final class LongIteratorTree extends LongTree {
+        private final PrimitiveIterator.OfLong[] sources;
+
+        LongIteratorTree(PrimitiveIterator.OfLong[] sources) {
+            super(sources.length);
+            this.sources = sources;
+            build();
+        }
+
+        @Override
+        boolean advance(int i) {
+            if (!sources[i].hasNext()) return false;
+            head = sources[i].nextLong();
+            return true;
+        }
+    }
+
+    /**
+     * 对象败者树，比较使用comparator。元素可能为null，不能用特殊值表示读完，因此用exhausted标记。
+     */
+    private static final class ObjectTree<T> implements Iterator<T> {
+        private final List<? extends Iterator<? extends T>> sources;
+        private final Comparator<? super T> comparator;
+        private final int k;
+        private final Object[] heads;
+        private final boolean[] exhausted;
+        private final int[] tree;
+
+        ObjectTree(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+            this.sources = sources;
+            this.comparator = comparator;
+            this.k = sources.size();
+            this.heads = new Object[k];
+            this.exhausted = new boolean[k];
+            this.tree = new int[Math.max(k, 1)];
+            if (k == 0) return;
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < k; i++) {
+                advance(i);
+            }
+            for (int i = 0; i < k; i++) {
+                adjust(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return k > 0 && !exhausted[tree[0]];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int winner = tree[0];
+            T item = (T) heads[winner];
+            advance(winner);
+            adjust(winner);
+            return item;
+        }
+
+        private void advance(int i) {
+            Iterator<? extends T> source = sources.get(i);
+            if (source.hasNext()) {
+                heads[i] = source.next();
+            } else {
+                heads[i] = null; // 不再持有已输出元素的引用。
+                exhausted[i] = true;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void adjust(int s) {
+            for (int t = (s + k) >> 1; t > 0; t >>= 1) {
+                int other = tree[t];
+                if (other == -1) {
+                    tree[t] = s;
+                    return;
+                }
+                if (exhausted[other]) continue;
+                int cmp = exhausted[s] ? -1 : comparator.compare((T) heads[other], (T) heads[s]);
+                if (cmp < 0 || (cmp == 0 && other < s)) {
+                    tree[t] = s;
+                    s = other;
+                }
+            }
+            tree[0] = s;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package cn.ning.algorithm.sort;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 归并排序
@@ -15,18 +17,44 @@ public class MergeSort {
     public static void main(String[] args) {
         int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
                 9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        int[] copy = nums.clone();
         recursiveMergeSort(nums);
         System.out.print("mergeSort: ");
         System.out.println(Arrays.toString(nums));
+        parallelMergeSort(copy);
+        System.out.print("parallelMergeSort: ");
+        System.out.println(Arrays.toString(copy));
     }
 
+    private static final int INSERTION_THRESHOLD = 16; // 子序列元素个数不超过该值时采用插入排序。
+    private static final int SORT_THRESHOLD = 1 << 13; // 子序列元素个数不超过该值时不再拆分任务。
+    private static final int MERGE_THRESHOLD = 1 << 13; // 合并元素个数不超过该值时串行合并。
+
     /**
      * 递归法
      * @param nums 待排序序列。
      */
     public static void recursiveMergeSort(int[] nums) {
-        int[] tmp = new int[nums.length];
-        segment(nums, tmp, 0, nums.length-1);
+        recursiveMergeSort(nums, 0, nums.length - 1);
+    }
+
+    /**
+     * 递归法，对序列的一个区间排序，辅助空间只需区间大小。
+     * @param nums 待排序序列。
+     * @param start 区间起始索引。
+     * @param end 区间末尾索引。
+     */
+    public static void recursiveMergeSort(int[] nums, int start, int end) {
+        if (start >= end) return;
+        int[] tmp = new int[end - start + 1];
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("recursiveMergeSort", tmp.length, () -> {
+                SortMetrics.probe().scratch_bytes += (long) tmp.length * Integer.BYTES;
+                segment(nums, tmp, start, end);
+            });
+            return;
+        }
+        segment(nums, tmp, start, end);
     }
 
     /**
@@ -44,6 +72,11 @@ public class MergeSort {
         /* 注意此处index1和index2的顺序，涉及到排序算法的稳定性。 */
         while (index1 <= mid && index2 <= end) tmp[index++] = (nums[index2] < nums[index1]
                 ? nums[index2++] : nums[index1++]);
+        if (SortMetrics.ENABLED) { // 每次比较输出一个元素；所有元素复制到辅助空间再复制回来。
+            SortMetrics.Probe probe = SortMetrics.probe();
+            probe.comparisons += index;
+            probe.moves += 2L * (end - start + 1);
+        }
         while (index1 <= mid) tmp[index++] = nums[index1++];
         while (index2 <= end) tmp[index++] = nums[index2++];
         /* ---------------------------------------------------- */
@@ -62,10 +95,12 @@ public class MergeSort {
         if (start >= end) {
             return;
         }
+        if (SortMetrics.ENABLED) SortMetrics.probe().enter();
         int mid = (start + end) / 2;
         segment(nums, tmp, start, mid);
         segment(nums, tmp, mid + 1, end);
         merge(nums, tmp, start, mid, end);
+        if (SortMetrics.ENABLED) SortMetrics.probe().exit();
     }
 
     /**
@@ -94,4 +129,237 @@ public class MergeSort {
             step = step * 2;
         }
     }
+
+    /**
+     * 并行归并排序，使用公共ForkJoinPool。
+     * @param nums 待排序序列
+     */
+    public static void parallelMergeSort(int[] nums) {
+        parallelMergeSort(nums, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行归并排序
+     * 原理：两个子序列的排序相互独立，可以作为两个任务并行执行。为了避免每一层合并之后都将辅助空间中的结果
+     *      复制回原序列，原序列和辅助空间在相邻的两层之间交替作为合并的源和目标（ping-pong），子序列的排序
+     *      结果直接写到父序列合并时的源中。合并本身也是并行的：取较长有序子序列的中间元素，在另一个有序子序列
+     *      中二分查找其位置，从而将一次合并拆分为两个互不相干的合并。
+     * 时间复杂度：O(nlogn)，并行度为O(n/(log n)^2)。
+     * 空间复杂度：O(n)。
+     * 稳定。
+     * @param nums 待排序序列
+     * @param pool 执行任务的线程池
+     */
+    public static void parallelMergeSort(int[] nums, ForkJoinPool pool) {
+        if (nums.length <= SORT_THRESHOLD) {
+            recursiveMergeSort(nums);
+            return;
+        }
+        int[] tmp = new int[nums.length];
+        pool.invoke(new SortTask(nums, tmp, 0, nums.length, false));
+    }
+
+    /**
+     * 归并排序，对键排序的同时对附带的数据（如元素的原始索引）做相同的移动，用于按一列对多列数据排序。
+     * 与并行归并排序一样，原序列和辅助空间交替作为合并的源和目标。
+     * 稳定：键相等的元素，附带数据保持原来的相对顺序。
+     * @param keys 待排序的键
+     * @param payload 附带的数据，长度与keys相同
+     */
+    public static void mergeSort(int[] keys, int[] payload) {
+        if (keys.length != payload.length) {
+            throw new IllegalArgumentException("The array length is not equal.");
+        }
+        pingPongSort(keys, payload, new int[keys.length], new int[keys.length], 0, keys.length, false);
+    }
+
+    /**
+     * 间接排序（argsort）：不移动keys，返回排列p，使keys[p[0]] <= keys[p[1]] <= ...，键相等时原始索引小的在前。
+     * 得到p之后可以用Permutation.apply按同样的顺序重排其他列。
+     * @param keys 键
+     * @return 排序后各位置上元素的原始索引
+     */
+    public static int[] argsort(int[] keys) {
+        int[] perm = Permutation.identity(keys.length);
+        mergeSort(keys.clone(), perm);
+        return perm;
+    }
+
+    /**
+     * 与pingPongSort(int[], int[], int, int, boolean)相同，附带的数据跟随键移动。
+     */
+    private static void pingPongSort(int[] keys, int[] payload, int[] tmp_keys, int[] tmp_payload,
+                                     int start, int end, boolean toTmp) {
+        if (end - start <= INSERTION_THRESHOLD) {
+            InsertSort.insertSort(keys, payload, start, end - 1);
+            if (toTmp) {
+                System.arraycopy(keys, start, tmp_keys, start, end - start);
+                System.arraycopy(payload, start, tmp_payload, start, end - start);
+            }
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        pingPongSort(keys, payload, tmp_keys, tmp_payload, start, mid, !toTmp);
+        pingPongSort(keys, payload, tmp_keys, tmp_payload, mid, end, !toTmp);
+        if (toTmp) {
+            merge(keys, payload, start, mid, end, tmp_keys, tmp_payload);
+        } else {
+            merge(tmp_keys, tmp_payload, start, mid, end, keys, payload);
+        }
+    }
+
+    /**
+     * 将src[start, mid)和src[mid, end)两个有序子序列合并到dst的相同区间，附带的数据跟随键移动。
+     */
+    private static void merge(int[] src, int[] src_payload, int start, int mid, int end,
+                              int[] dst, int[] dst_payload) {
+        int index1 = start;
+        int index2 = mid;
+        int index = start;
+        while (index1 < mid && index2 < end) {
+            if (src[index2] < src[index1]) {
+                dst_payload[index] = src_payload[index2];
+                dst[index++] = src[index2++];
+            } else {
+                dst_payload[index] = src_payload[index1];
+                dst[index++] = src[index1++];
+            }
+        }
+        System.arraycopy(src, index1, dst, index, mid - index1);
+        System.arraycopy(src_payload, index1, dst_payload, index, mid - index1);
+        index += mid - index1;
+        System.arraycopy(src, index2, dst, index, end - index2);
+        System.arraycopy(src_payload, index2, dst_payload, index, end - index2);
+    }
+
+    /**
+     * 对nums[start, end)排序，结果写入nums（toTmp为false）或tmp（toTmp为true）的相同区间。
+     */
+    private static void pingPongSort(int[] nums, int[] tmp, int start, int end, boolean toTmp) {
+        if (end - start <= INSERTION_THRESHOLD) {
+            InsertSort.insertSort(nums, start, end - 1);
+            if (toTmp) {
+                System.arraycopy(nums, start, tmp, start, end - start);
+            }
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        pingPongSort(nums, tmp, start, mid, !toTmp);
+        pingPongSort(nums, tmp, mid, end, !toTmp);
+        if (toTmp) {
+            merge(nums, start, mid, mid, end, tmp, start);
+        } else {
+            merge(tmp, start, mid, mid, end, nums, start);
+        }
+    }
+
+    /**
+     * 将src[start1, end1)和src[start2, end2)两个有序子序列合并到dst[index, ...)。
+     */
+    private static void merge(int[] src, int start1, int end1, int start2, int end2, int[] dst, int index) {
+        while (start1 < end1 && start2 < end2) dst[index++] = (src[start2] < src[start1]
+                ? src[start2++] : src[start1++]);
+        System.arraycopy(src, start1, dst, index, end1 - start1);
+        System.arraycopy(src, start2, dst, index + end1 - start1, end2 - start2);
+    }
+
+    /**
+     * 在有序子序列nums[start, end)中查找第一个不小于（strict为false）或大于（strict为true）key的位置。
+     */
+    private static int search(int[] nums, int start, int end, int key, boolean strict) {
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (nums[mid] < key || (strict && nums[mid] == key)) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * 并行排序任务，语义同pingPongSort。
+     */
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nums;
+        private final int[] tmp;
+        private final int start;
+        private final int end;
+        private final boolean toTmp;
+
+        SortTask(int[] nums, int[] tmp, int start, int end, boolean toTmp) {
+            this.nums = nums;
+            this.tmp = tmp;
+            this.start = start;
+            this.end = end;
+            this.toTmp = toTmp;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SORT_THRESHOLD) {
+                pingPongSort(nums, tmp, start, end, toTmp);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new SortTask(nums, tmp, start, mid, !toTmp),
+                    new SortTask(nums, tmp, mid, end, !toTmp));
+            if (toTmp) {
+                new MergeTask(nums, start, mid, mid, end, tmp, start).compute();
+            } else {
+                new MergeTask(tmp, start, mid, mid, end, nums, start).compute();
+            }
+        }
+    }
+
+    /**
+     * 并行合并任务，语义同merge。
+     */
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int start1;
+        private final int end1;
+        private final int start2;
+        private final int end2;
+        private final int[] dst;
+        private final int index;
+
+        MergeTask(int[] src, int start1, int end1, int start2, int end2, int[] dst, int index) {
+            this.src = src;
+            this.start1 = start1;
+            this.end1 = end1;
+            this.start2 = start2;
+            this.end2 = end2;
+            this.dst = dst;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = end1 - start1;
+            int len2 = end2 - start2;
+            if (len1 + len2 <= MERGE_THRESHOLD) {
+                merge(src, start1, end1, start2, end2, dst, index);
+                return;
+            }
+            /* 注意二分查找的边界，涉及到排序算法的稳定性：与分割元素相等的元素，来自第一个子序列的排在前面。 */
+            int mid1;
+            int mid2;
+            if (len1 >= len2) {
+                mid1 = (start1 + end1) >>> 1;
+                mid2 = search(src, start2, end2, src[mid1], false);
+            } else {
+                mid2 = (start2 + end2) >>> 1;
+                mid1 = search(src, start1, end1, src[mid2], true);
+            }
+            int mid_index = index + (mid1 - start1) + (mid2 - start2);
+            invokeAll(new MergeTask(src, start1, mid1, start2, mid2, dst, index),
+                    new MergeTask(src, mid1, end1, mid2, end2, dst, mid_index));
+        }
+    }
 }
@@ -0,0 +1,350 @@
+package cn.ning.algorithm.sort;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 堆外排序
+ * 直接在ByteBuffer（直接缓冲区、MappedByteBuffer映射的文件）上原地排序，数据不必复制到堆上的int[]中。
+ * 数据看作一组定长记录：int序列是4字节的记录，long序列是8字节的记录，也可以是任意长度、在指定偏移处带有
+ * int或long键的记录。字节序使用ByteBuffer自身的字节序，记录从buffer的position开始，到limit结束。
+ * 提供与堆上版本相同的四种算法：内省排序、堆排序、归并排序和基数排序，后两种需要一块与数据等大的堆外辅助空间。
+ */
+public class OffHeapSort {
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        ByteBuffer buffer = ByteBuffer.allocateDirect(nums.length * Integer.BYTES);
+        buffer.asIntBuffer().put(nums);
+        radixSort(ints(buffer));
+        buffer.asIntBuffer().get(nums);
+        System.out.print("offHeapRadixSort: ");
+        System.out.println(Arrays.toString(nums));
+
+        // 记录：4字节id + 8字节分数，按分数排序。
+        ByteBuffer records = ByteBuffer.allocateDirect(5 * 12);
+        long[] scores = {30, 10, 50, 20, 40};
+        for (int i = 0; i < scores.length; i++) {
+            records.putInt(i * 12, i).putLong(i * 12 + 4, scores[i]);
+        }
+        mergeSort(records(records, 12, 4, true));
+        System.out.print("offHeapMergeSort(records): ");
+        for (int i = 0; i < scores.length; i++) {
+            System.out.print("(" + records.getInt(i * 12) + ", " + records.getLong(i * 12 + 4) + ") ");
+        }
+        System.out.println();
+    }
+
+    private static final int INSERTION_THRESHOLD = 16; // 区间元素个数不超过该值时采用插入排序。
+
+    /**
+     * 把buffer看作int序列。
+     */
+    public static Records ints(ByteBuffer buffer) {
+        return new Records(buffer, Integer.BYTES, 0, false);
+    }
+
+    /**
+     * 把buffer看作long序列。
+     */
+    public static Records longs(ByteBuffer buffer) {
+        return new Records(buffer, Long.BYTES, 0, true);
+    }
+
+    /**
+     * 把buffer看作定长记录序列。
+     * @param buffer 数据
+     * @param record_size 记录的字节数
+     * @param key_offset 键在记录中的字节偏移
+     * @param long_key 键为long（true）或int（false）
+     */
+    public static Records records(ByteBuffer buffer, int record_size, int key_offset, boolean long_key) {
+        return new Records(buffer, record_size, key_offset, long_key);
+    }
+
+    /**
+     * 内省排序，原理同QuickSort.introSort。
+     * 时间复杂度：O(nlogn)。
+     * 空间复杂度：O(logn)。
+     * 不稳定。
+     */
+    public static void quickSort(Records records) {
+        int n = records.length;
+        if (n < 2) return;
+        quickSort(records, 0, n - 1, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+    }
+
+    private static void quickSort(Records records, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort(records, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(records, start, end);
+            if (pivot - start < end - pivot) {
+                quickSort(records, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                quickSort(records, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        insertSort(records, start, end);
+    }
+
+    /**
+     * 三数取中后进行Hoare划分，返回基准记录的最终位置。
+     */
+    private static int partition(Records records, int start, int end) {
+        int mid = (start + end) >>> 1;
+        long a = records.key(start);
+        long b = records.key(mid);
+        long c = records.key(end);
+        int median = a < b ? (b < c ? mid : (a < c ? end : start)) : (a < c ? start : (b < c ? end : mid));
+        records.swap(start, median);
+        long pivot = records.key(start);
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (records.key(++i) < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < records.key(--j)) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            records.swap(i, j);
+        }
+        records.swap(start, j);
+        return j;
+    }
+
+    private static void insertSort(Records records, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            for (int j = i; j > start && records.key(j) < records.key(j - 1); j--) {
+                records.swap(j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * 堆排序，原理同HeapSort.heapSort。
+     * 时间复杂度：O(nlogn)。
+     * 空间复杂度：O(1)。
+     * 不稳定。
+     */
+    public static void heapSort(Records records) {
+        heapSort(records, 0, records.length - 1);
+    }
+
+    private static void heapSort(Records records, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            siftDown(records, start, i, len);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            records.swap(start, start + i);
+            siftDown(records, start, 0, i);
+        }
+    }
+
+    /**
+     * 下沉第i条记录。记录的长度不定，不能像HeapSort那样用空位代替交换，但下沉记录的键只需读取一次。
+     */
+    private static void siftDown(Records records, int start, int i, int len) {
+        long x = records.key(start + i);
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            long child_key = records.key(start + child);
+            if (child + 1 < len) {
+                long right_key = records.key(start + child + 1);
+                if (right_key > child_key) {
+                    child++;
+                    child_key = right_key;
+                }
+            }
+            if (child_key <= x) break;
+            records.swap(start + i, start + child);
+            i = child;
+        }
+    }
+
+    /**
+     * 自底向上的归并排序：先用插入排序把每16条记录排好序，再逐趟两两合并，辅助空间与原数据交替作为源和目标。
+     * 时间复杂度：O(nlogn)。
+     * 空间复杂度：O(n)，在堆外分配。
+     * 稳定。
+     */
+    public static void mergeSort(Records records) {
+        int n = records.length;
+        if (n < 2) return;
+        for (int start = 0; start < n; start += INSERTION_THRESHOLD) {
+            insertSort(records, start, Math.min(start + INSERTION_THRESHOLD, n) - 1);
+        }
+        if (n <= INSERTION_THRESHOLD) return;
+        Records src = records;
+        Records dst = records.scratch();
+        for (int width = INSERTION_THRESHOLD; width < n; width <<= 1) {
+            for (int start = 0; start < n; start += 2 * width) {
+                int mid = Math.min(start + width, n);
+                int end = Math.min(start + 2 * width, n);
+                merge(src, start, mid, end, dst);
+            }
+            Records tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != records) {
+            records.copyFrom(src, 0, 0, n);
+        }
+    }
+
+    /**
+     * 将src[start, mid)和src[mid, end)合并到dst的相同区间，键相等时取前一个子序列的记录。
+     */
+    private static void merge(Records src, int start, int mid, int end, Records dst) {
+        int index1 = start;
+        int index2 = mid;
+        int index = start;
+        while (index1 < mid && index2 < end) {
+            if (src.key(index2) < src.key(index1)) {
+                dst.copyFrom(src, index2++, index++, 1);
+            } else {
+                dst.copyFrom(src, index1++, index++, 1);
+            }
+        }
+        dst.copyFrom(src, index1, index, mid - index1);
+        dst.copyFrom(src, index2, index + mid - index1, end - index2);
+    }
+
+    /**
+     * LSD基数排序，每趟取键的8个二进制位，原理同RadixSort.binaryRadixSort：键的符号位取反后按无符号数排序，
+     * 所有趟的计数在一次遍历中完成，所有记录在某一数位上相同时跳过该趟。
+     * 时间复杂度：O(d*n)，d为键的字节数。
+     * 空间复杂度：O(n)，在堆外分配。
+     * 稳定。
+     */
+    public static void radixSort(Records records) {
+        int n = records.length;
+        if (n < 2) return;
+        int passes = records.long_key ? Long.BYTES : Integer.BYTES;
+        int[][] counts = new int[passes][256];
+        for (int i = 0; i < n; i++) {
+            long key = records.radixKey(i);
+            for (int p = 0; p < passes; p++) {
+                counts[p][(int) (key >>> (p * 8)) & 0xFF]++;
+            }
+        }
+        Records src = records;
+        Records dst = null;
+        for (int p = 0; p < passes; p++) {
+            int shift = p * 8;
+            int[] index = counts[p];
+            if (index[(int) (src.radixKey(0) >>> shift) & 0xFF] == n) continue; // 所有记录该数位相同。
+            if (dst == null) dst = records.scratch();
+            int sum = 0;
+            for (int j = 0; j < 256; j++) {
+                int tmp = index[j];
+                index[j] = sum;
+                sum += tmp;
+            }
+            for (int i = 0; i < n; i++) {
+                dst.copyFrom(src, i, index[(int) (src.radixKey(i) >>> shift) & 0xFF]++, 1);
+            }
+            Records tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != records) {
+            records.copyFrom(src, 0, 0, n);
+        }
+    }
+
+    /**
+     * ByteBuffer上的一组定长记录。
+     */
+    public static final class Records {
+        private final ByteBuffer buffer; // 从原buffer的position开始的切片，第i条记录位于i * size。
+        private final int size;
+        private final int key_offset;
+        private final boolean long_key;
+        private final int length;
+        private final byte[] tmp; // 交换一般长度的记录时使用。
+
+        private Records(ByteBuffer buffer, int size, int key_offset, boolean long_key) {
+            int key_size = long_key ? Long.BYTES : Integer.BYTES;
+            if (size <= 0 || key_offset < 0 || key_offset + key_size > size) {
+                throw new IllegalArgumentException("invalid record layout: size " + size + ", key offset " + key_offset);
+            }
+            if (buffer.remaining() % size != 0) {
+                throw new IllegalArgumentException("buffer length is not a multiple of record size " + size);
+            }
+            this.buffer = buffer.slice().order(buffer.order());
+            this.size = size;
+            this.key_offset = key_offset;
+            this.long_key = long_key;
+            this.length = buffer.remaining() / size;
+            this.tmp = new byte[size];
+        }
+
+        /**
+         * 记录条数。
+         */
+        public int length() {
+            return length;
+        }
+
+        long key(int i) {
+            int pos = i * size + key_offset;
+            return long_key ? buffer.getLong(pos) : buffer.getInt(pos);
+        }
+
+        /**
+         * 符号位取反后的键，其无符号顺序与键的有符号顺序一致。
+         */
+        long radixKey(int i) {
+            int pos = i * size + key_offset;
+            return long_key ? buffer.getLong(pos) ^ Long.MIN_VALUE : buffer.getInt(pos) ^ Integer.MIN_VALUE;
+        }
+
+        void swap(int i, int j) {
+            int a = i * size;
+            int b = j * size;
+            if (size == Integer.BYTES) {
+                int tmp_int = buffer.getInt(a);
+                buffer.putInt(a, buffer.getInt(b));
+                buffer.putInt(b, tmp_int);
+            } else if (size == Long.BYTES) {
+                long tmp_long = buffer.getLong(a);
+                buffer.putLong(a, buffer.getLong(b));
+                buffer.putLong(b, tmp_long);
+            } else {
+                buffer.get(a, tmp);
+                buffer.put(a, buffer, b, size);
+                buffer.put(b, tmp);
+            }
+        }
+
+        /**
+         * 把src中从from开始的count条记录复制到本序列中从to开始的位置，两个区间不能部分重叠。
+         */
+        void copyFrom(Records src, int from, int to, int count) {
+            if (count == 1 && size == Integer.BYTES) {
+                buffer.putInt(to * size, src.buffer.getInt(from * size));
+            } else if (count == 1 && size == Long.BYTES) {
+                buffer.putLong(to * size, src.buffer.getLong(from * size));
+            } else if (count > 0) {
+                buffer.put(to * size, src.buffer, from * size, count * size);
+            }
+        }
+
+        /**
+         * 与本序列布局相同的堆外辅助空间。
+         */
+        Records scratch() {
+            ByteBuffer scratch = ByteBuffer.allocateDirect(length * size).order(buffer.order());
+            return new Records(scratch, size, key_offset, long_key);
+        }
+    }
+}
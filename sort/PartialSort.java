@@ -0,0 +1,220 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * 部分排序
+ * 只需要第k小的元素、最小的k个元素或最大的k个元素时，不必对整个序列排序。
+ * 1. select：内省选择（introselect），复用QuickSort的划分，每次只继续处理包含第k个位置的一侧。
+ * 2. partialSort：先select把最小的k个元素划分到前面，再只对这k个元素排序。
+ * 3. TopK：大小为k的最小堆，逐个接收元素，适合元素来自流、无法一次放入数组的情况。
+ * 以上操作除了返回结果的数组外都不分配内存。
+ */
+public class PartialSort {
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        int[] copy = nums.clone();
+        System.out.println("select(10): " + select(copy, 10));
+        copy = nums.clone();
+        partialSort(copy, 10);
+        System.out.print("partialSort(10): ");
+        System.out.println(Arrays.toString(Arrays.copyOf(copy, 10)));
+        System.out.print("topK(5): ");
+        System.out.println(Arrays.toString(topK(nums, 5)));
+    }
+
+    private static final int INSERTION_THRESHOLD = 16; // 区间元素个数不超过该值时采用插入排序。
+
+    /**
+     * 选择第k小的元素（k从0开始）
+     * 原理：对序列进行一次划分后，基准元素已经在其最终位置上，第k个位置只会落在基准的一侧，只需继续划分这一侧。
+     *      与内省排序一样，划分次数超过2*logn时改用堆排序处理剩余区间，避免退化。
+     * 时间复杂度：平均O(n)，最坏O(nlogn)。
+     * 空间复杂度：O(1)。
+     * 返回后nums[k]即为第k小的元素，其左侧元素均不大于它，右侧元素均不小于它。
+     * @param nums 序列
+     * @param k 位置
+     * @return 第k小的元素
+     */
+    public static int select(int[] nums, int k) {
+        return select(nums, 0, nums.length - 1, k);
+    }
+
+    /**
+     * 在序列的一个区间中选择第k小的元素，k为数组下标，start <= k <= end。
+     * @param nums 序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param k 位置
+     * @return nums[k]
+     */
+    public static int select(int[] nums, int start, int end, int k) {
+        if (k < start || k > end) {
+            throw new ArrayIndexOutOfBoundsException("k = " + k + " not in [" + start + ", " + end + "]");
+        }
+        int depth_limit = 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1));
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit-- == 0) { // 划分持续不均衡，改用堆排序。
+                HeapSort.heapSort(nums, start, end);
+                return nums[k];
+            }
+            int pivot = QuickSort.partition(nums, start, end);
+            if (pivot == k) return nums[k];
+            if (k < pivot) {
+                end = pivot - 1;
+            } else {
+                start = pivot + 1;
+            }
+        }
+        InsertSort.insertSort(nums, start, end);
+        return nums[k];
+    }
+
+    /**
+     * 部分排序：将最小的k个元素按从小到大的顺序放到序列的前k个位置，其余元素的顺序不确定。
+     * 时间复杂度：平均O(n + klogk)。
+     * 空间复杂度：O(logk)。
+     * @param nums 序列
+     * @param k 需要排好序的元素个数
+     */
+    public static void partialSort(int[] nums, int k) {
+        if (k <= 0) return;
+        if (k >= nums.length) {
+            QuickSort.introSort(nums, 0, nums.length - 1);
+            return;
+        }
+        select(nums, k - 1);
+        QuickSort.introSort(nums, 0, k - 2); // nums[k - 1]已经在最终位置上。
+    }
+
+    /**
+     * 返回最大的k个元素，按从大到小排列，不修改nums。
+     * 时间复杂度：O(nlogk)，序列随机时大部分元素只与堆顶比较一次，接近O(n)。
+     * 空间复杂度：O(k)。
+     * @param nums 序列
+     * @param k 元素个数
+     * @return 最大的k个元素，nums中元素不足k个时返回全部元素
+     */
+    public static int[] topK(int[] nums, int k) {
+        TopK top = new TopK(k);
+        for (int num : nums) {
+            top.accept(num);
+        }
+        return top.toArray();
+    }
+
+    /**
+     * 返回迭代器中最大的k个元素，按从大到小排列。
+     * @param nums 元素
+     * @param k 元素个数
+     * @return 最大的k个元素
+     */
+    public static int[] topK(PrimitiveIterator.OfInt nums, int k) {
+        TopK top = new TopK(k);
+        nums.forEachRemaining(top);
+        return top.toArray();
+    }
+
+    /**
+     * 保留最大的k个元素的有界堆
+     * 原理：用大小为k的最小堆保存当前最大的k个元素，堆顶是其中最小的一个。新元素不大于堆顶时直接丢弃，
+     *      否则替换堆顶并下沉。accept不分配内存。
+     * 可以直接用于IntStream：stream.collect(() -> new TopK(k), TopK::accept, TopK::combine)。
+     * 不是线程安全的。
+     */
+    public static final class TopK implements IntConsumer {
+        private final int[] heap;
+        private int size;
+
+        /**
+         * @param k 保留的元素个数
+         */
+        public TopK(int k) {
+            if (k < 0) throw new IllegalArgumentException("k < 0: " + k);
+            this.heap = new int[k];
+        }
+
+        @Override
+        public void accept(int num) {
+            if (size < heap.length) {
+                siftUp(num);
+            } else if (size > 0 && num > heap[0]) {
+                siftDown(heap, 0, size, num);
+            }
+        }
+
+        /**
+         * 并入另一个TopK中的元素。
+         */
+        public void combine(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+        }
+
+        /**
+         * 当前保留的元素个数。
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 当前保留的元素中最小的一个，即第k大的元素。
+         */
+        public int min() {
+            if (size == 0) throw new IllegalStateException("empty");
+            return heap[0];
+        }
+
+        /**
+         * 返回当前保留的元素，按从大到小排列，不影响之后继续接收元素。
+         */
+        public int[] toArray() {
+            int[] result = Arrays.copyOf(heap, size);
+            for (int i = size - 1; i > 0; i--) { // 最小堆的堆排序，依次把最小值放到末尾，得到降序序列。
+                int tmp = result[i];
+                result[i] = result[0];
+                siftDown(result, 0, i, tmp);
+            }
+            return result;
+        }
+
+        /**
+         * 清空，重新开始接收元素。
+         */
+        public void clear() {
+            size = 0;
+        }
+
+        private void siftUp(int num) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= num) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = num;
+        }
+
+        /**
+         * 将值x放到以i为根的最小堆中（i处为空位），较小的子结点上移填补空位。
+         */
+        private static void siftDown(int[] heap, int i, int len, int x) {
+            int child;
+            while ((child = i * 2 + 1) < len) {
+                if (child + 1 < len && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= x) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = x;
+        }
+    }
+}
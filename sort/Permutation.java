@@ -0,0 +1,106 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+
+/**
+ * 排列
+ * argsort返回的排列p表示排序后第i个位置上是原来的第p[i]个元素。按一列排序多列数据时，先对键列求出p，
+ * 再用apply把同一个排列作用到其余各列，各列始终保持为基本类型数组，不必把每一行包装成对象。
+ */
+public class Permutation {
+    public static void main(String[] args) {
+        int[] scores = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        long[] ids = new long[scores.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1000 + i;
+        }
+        int[] perm = MergeSort.argsort(scores);
+        apply(perm, scores);
+        apply(perm, ids);
+        System.out.print("scores: ");
+        System.out.println(Arrays.toString(scores));
+        System.out.print("ids: ");
+        System.out.println(Arrays.toString(ids));
+    }
+
+    /**
+     * 恒等排列{0, 1, ..., n - 1}。
+     */
+    public static int[] identity(int n) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        return perm;
+    }
+
+    /**
+     * 逆排列q，满足q[p[i]] = i，即原来第i个元素排序后所在的位置。
+     */
+    public static int[] inverse(int[] perm) {
+        int[] inverse = new int[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            inverse[perm[i]] = i;
+        }
+        return inverse;
+    }
+
+    /**
+     * 按排列重排一列数据：column[i] = 原column[perm[i]]。
+     * @param perm 排列
+     * @param column 数据列，长度与perm相同
+     */
+    public static void apply(int[] perm, int[] column) {
+        checkLength(perm, column.length);
+        int[] src = column.clone();
+        for (int i = 0; i < perm.length; i++) {
+            column[i] = src[perm[i]];
+        }
+    }
+
+    /**
+     * 按排列重排一列数据：column[i] = 原column[perm[i]]。
+     * @param perm 排列
+     * @param column 数据列，长度与perm相同
+     */
+    public static void apply(int[] perm, long[] column) {
+        checkLength(perm, column.length);
+        long[] src = column.clone();
+        for (int i = 0; i < perm.length; i++) {
+            column[i] = src[perm[i]];
+        }
+    }
+
+    /**
+     * 按排列重排一列数据：column[i] = 原column[perm[i]]。
+     * @param perm 排列
+     * @param column 数据列，长度与perm相同
+     */
+    public static void apply(int[] perm, double[] column) {
+        checkLength(perm, column.length);
+        double[] src = column.clone();
+        for (int i = 0; i < perm.length; i++) {
+            column[i] = src[perm[i]];
+        }
+    }
+
+    /**
+     * 按排列重排一列数据：column[i] = 原column[perm[i]]。
+     * @param perm 排列
+     * @param column 数据列，长度与perm相同
+     */
+    public static <T> void apply(int[] perm, T[] column) {
+        checkLength(perm, column.length);
+        T[] src = column.clone();
+        for (int i = 0; i < perm.length; i++) {
+            column[i] = src[perm[i]];
+        }
+    }
+
+    private static void checkLength(int[] perm, int len) {
+        if (perm.length != len) {
+            throw new IllegalArgumentException("The array length is not equal.");
+        }
+    }
+}
@@ -6,10 +6,25 @@ public class QuickSort {
     public static void main(String[] args) {
         int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
                 9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        int[] copy = nums.clone();
         quickSort(nums, 0, nums.length - 1);
         System.out.print("quickSort: ");
         System.out.println(Arrays.toString(nums));
+        introSort(copy, 0, copy.length - 1);
+        System.out.print("introSort: ");
+        System.out.println(Arrays.toString(copy));
+        copy = nums.clone();
+        threeWayQuickSort(copy, 0, copy.length - 1);
+        System.out.print("threeWayQuickSort: ");
+        System.out.println(Arrays.toString(copy));
+        copy = nums.clone();
+        dualPivotQuickSort(copy, 0, copy.length - 1);
+        System.out.print("dualPivotQuickSort: ");
+        System.out.println(Arrays.toString(copy));
     }
+
+    private static final int INSERTION_THRESHOLD = 16; // 区间元素个数不超过该值时采用插入排序。
+    private static final int NINTHER_THRESHOLD = 128; // 区间元素个数超过该值时采用九数取中法选取基准。
     /**
      * 快速排序
      * 原理：选取待排序序列中的一个元素作为基准，将序列中比基准元素小的元素放到基准元素前面，比基准元素大的元素放
@@ -24,6 +39,14 @@ public class QuickSort {
      * @param end 待排序序列末尾索引。
      */
     public static void quickSort(int[] nums, int start, int end) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("quickSort", end - start + 1, () -> lomutoQuickSort(nums, start, end));
+            return;
+        }
+        lomutoQuickSort(nums, start, end);
+    }
+
+    private static void lomutoQuickSort(int[] nums, int start, int end) {
         if (start >= end) return;
         int i = start - 1; // 比基点pivot大元素的索引。
         for (int j = start; j < end; j++) {
@@ -38,7 +61,334 @@ public class QuickSort {
         int tmp = nums[pivot];
         nums[pivot] = nums[end];
         nums[end] = tmp;
-        quickSort(nums, start, pivot - 1);
-        quickSort(nums, pivot + 1, end);
+        if (SortMetrics.ENABLED) { // i - start + 1次交换，加上基准的一次交换。
+            SortMetrics.Probe probe = SortMetrics.probe();
+            probe.comparisons += end - start;
+            probe.moves += pivot - start + 1;
+            probe.enter();
+        }
+        lomutoQuickSort(nums, start, pivot - 1);
+        lomutoQuickSort(nums, pivot + 1, end);
+        if (SortMetrics.ENABLED) SortMetrics.probe().exit();
+    }
+
+    /**
+     * 内省排序（Introsort）
+     * 原理：在快速排序的基础上进行加固。基准元素采用三数取中法（大区间采用九数取中法）选取，避免在正序、逆序
+     *      序列上退化；递归深度超过2*logn时，说明划分持续不均衡，此时改用堆排序处理剩余区间；区间元素个数较
+     *      少时改用插入排序。每次只对较小的子区间进行递归，较大的子区间在循环中处理，递归深度不超过logn。
+     * 时间复杂度：最坏O(nlogn)。
+     * 空间复杂度：O(logn)。
+     * 不稳定。
+     * @param nums 待排序序列。
+     * @param start 待排序序列起始索引。
+     * @param end 待排序序列末尾索引。
+     */
+    public static void introSort(int[] nums, int start, int end) {
+        if (start >= end) return;
+        int depth_limit = 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1));
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("introSort", end - start + 1, () -> introSort(nums, start, end, depth_limit));
+            return;
+        }
+        introSort(nums, start, end, depth_limit);
+    }
+
+    private static void introSort(int[] nums, int start, int end, int depth_limit) {
+        if (SortMetrics.ENABLED) SortMetrics.probe().enter();
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) { // 划分持续不均衡，改用堆排序。
+                HeapSort.heapSort(nums, start, end);
+                if (SortMetrics.ENABLED) SortMetrics.probe().exit();
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(nums, start, end);
+            if (pivot - start < end - pivot) { // 递归处理较小的子区间。
+                introSort(nums, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort(nums, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        InsertSort.insertSort(nums, start, end);
+        if (SortMetrics.ENABLED) SortMetrics.probe().exit();
+    }
+
+    /**
+     * 内省排序，对键排序的同时对附带的数据（如元素的原始索引）做相同的移动，用于按一列对多列数据排序。
+     * 不稳定：键相等的元素，附带数据的相对顺序不确定。
+     * @param keys 待排序的键
+     * @param payload 附带的数据，长度与keys相同
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void introSort(int[] keys, int[] payload, int start, int end) {
+        if (keys.length != payload.length) {
+            throw new IllegalArgumentException("The array length is not equal.");
+        }
+        if (start >= end) return;
+        int depth_limit = 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1));
+        introSort(keys, payload, start, end, depth_limit);
+    }
+
+    /**
+     * 间接排序（argsort）：不移动keys，返回排列p，使keys[p[0]] <= keys[p[1]] <= ...。
+     * 得到p之后可以用Permutation.apply按同样的顺序重排其他列。
+     * @param keys 键
+     * @return 排序后各位置上元素的原始索引
+     */
+    public static int[] argsort(int[] keys) {
+        int[] perm = Permutation.identity(keys.length);
+        introSort(keys.clone(), perm, 0, keys.length - 1);
+        return perm;
+    }
+
+    private static void introSort(int[] keys, int[] payload, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                HeapSort.heapSort(keys, payload, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(keys, payload, start, end);
+            if (pivot - start < end - pivot) {
+                introSort(keys, payload, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort(keys, payload, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        InsertSort.insertSort(keys, payload, start, end);
+    }
+
+    /**
+     * 与partition(int[], int, int)相同，附带的数据跟随键交换。
+     */
+    private static int partition(int[] keys, int[] payload, int start, int end) {
+        swap(keys, payload, start, choosePivot(keys, start, end));
+        int pivot = keys[start];
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (keys[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < keys[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            swap(keys, payload, i, j);
+        }
+        swap(keys, payload, start, j);
+        return j;
+    }
+
+    /**
+     * 三路快速排序
+     * 原理：按照荷兰国旗问题的思路，将序列划分为小于、等于、大于基准元素的三个部分，只对小于和大于基准的两个
+     *      部分进行递归。与基准相等的元素在一次划分后即全部归位，因此当序列中不同的元素很少时，排序接近线性
+     *      时间。
+     * 时间复杂度：平均O(nlogn)，只有k个不同元素时为O(nlogk)。
+     * 空间复杂度：O(logn)。
+     * 不稳定。
+     * @param nums 待排序序列。
+     * @param start 待排序序列起始索引。
+     * @param end 待排序序列末尾索引。
+     */
+    public static void threeWayQuickSort(int[] nums, int start, int end) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            swap(nums, start, choosePivot(nums, start, end));
+            int pivot = nums[start];
+            int lt = start; // [start, lt)小于基准。
+            int gt = end; // (gt, end]大于基准。
+            int i = start + 1; // [lt, i)等于基准。
+            while (i <= gt) {
+                if (nums[i] < pivot) {
+                    swap(nums, lt++, i++);
+                } else if (nums[i] > pivot) {
+                    swap(nums, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - start < end - gt) { // 递归处理较小的子区间。
+                threeWayQuickSort(nums, start, lt - 1);
+                start = gt + 1;
+            } else {
+                threeWayQuickSort(nums, gt + 1, end);
+                end = lt - 1;
+            }
+        }
+        InsertSort.insertSort(nums, start, end);
+    }
+
+    /**
+     * 双基准快速排序
+     * 原理：选取两个基准元素p <= q，一次划分将序列分成小于p、介于p和q之间、大于q的三个部分，再分别递归处理。
+     *      与单基准相比，每个元素的平均访存次数更少。当p == q时，中间部分的元素全部等于基准，无需再处理；
+     *      当p < q时，先把中间部分里等于p的元素移到左端、等于q的元素移到右端（Yaroslavskiy），它们已经归位，
+     *      只处理剩下的严格介于p和q之间的元素，因此重复元素较多时不会退化。与内省排序相同，递归深度超过2*logn
+     *      时改用堆排序，每次只对较小的两个部分进行递归，最大的部分在循环中处理。
+     * 时间复杂度：平均O(nlogn)，最坏O(nlogn)。
+     * 空间复杂度：O(logn)。
+     * 不稳定。
+     * @param nums 待排序序列。
+     * @param start 待排序序列起始索引。
+     * @param end 待排序序列末尾索引。
+     */
+    public static void dualPivotQuickSort(int[] nums, int start, int end) {
+        if (start >= end) return;
+        int depth_limit = 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1));
+        dualPivotQuickSort(nums, start, end, depth_limit);
+    }
+
+    private static void dualPivotQuickSort(int[] nums, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) { // 划分持续不均衡，改用堆排序。
+                HeapSort.heapSort(nums, start, end);
+                return;
+            }
+            depth_limit--;
+            int len = end - start + 1;
+            // 取三分位点上的元素作为基准，避免在正序、逆序序列上退化。
+            swap(nums, start, start + len / 3);
+            swap(nums, end, end - len / 3);
+            if (nums[start] > nums[end]) {
+                swap(nums, start, end);
+            }
+            int p = nums[start];
+            int q = nums[end];
+            int lt = start + 1; // [start + 1, lt)小于p。
+            int gt = end - 1; // (gt, end - 1]大于q。
+            int k = lt; // [lt, k)介于p和q之间。
+            while (k <= gt) {
+                if (nums[k] < p) {
+                    swap(nums, k, lt++);
+                } else if (nums[k] > q) {
+                    while (nums[gt] > q && k < gt) {
+                        gt--;
+                    }
+                    swap(nums, k, gt--);
+                    if (nums[k] < p) {
+                        swap(nums, k, lt++);
+                    }
+                }
+                k++;
+            }
+            swap(nums, start, --lt); // 基准归位。
+            swap(nums, end, ++gt);
+
+            int less = lt + 1; // 中间部分中需要继续排序的区间[less, great]。
+            int great = gt - 1;
+            if (p == q) {
+                less = great + 1; // 中间部分全部等于基准。
+            } else {
+                // 等于p的元素移到[lt + 1, less)，等于q的元素移到(great, gt - 1]。
+                for (k = less; k <= great; k++) {
+                    if (nums[k] == p) {
+                        swap(nums, k, less++);
+                    } else if (nums[k] == q) {
+                        while (nums[great] == q && k < great) {
+                            great--;
+                        }
+                        swap(nums, k, great--);
+                        if (nums[k] == p) {
+                            swap(nums, k, less++);
+                        }
+                    }
+                }
+            }
+
+            // 递归处理较小的两个部分，最大的部分留在循环中处理。
+            int left_len = lt - start;
+            int middle_len = great - less + 1;
+            int right_len = end - gt;
+            if (left_len >= middle_len && left_len >= right_len) {
+                dualPivotQuickSort(nums, less, great, depth_limit);
+                dualPivotQuickSort(nums, gt + 1, end, depth_limit);
+                end = lt - 1;
+            } else if (right_len >= middle_len) {
+                dualPivotQuickSort(nums, start, lt - 1, depth_limit);
+                dualPivotQuickSort(nums, less, great, depth_limit);
+                start = gt + 1;
+            } else {
+                dualPivotQuickSort(nums, start, lt - 1, depth_limit);
+                dualPivotQuickSort(nums, gt + 1, end, depth_limit);
+                start = less;
+                end = great;
+            }
+        }
+        InsertSort.insertSort(nums, start, end);
+    }
+
+    /**
+     * 选取基准元素并对区间进行划分（Hoare划分）。与基准元素相等的元素会被均匀地分到两侧，因此大量重复元素
+     * 不会导致划分不均衡。
+     * @param nums 待排序序列。
+     * @param start 区间起始索引。
+     * @param end 区间末尾索引。
+     * @return 基准元素的最终位置，其左侧元素均不大于基准，右侧元素均不小于基准。
+     */
+    static int partition(int[] nums, int start, int end) {
+        swap(nums, start, choosePivot(nums, start, end));
+        int pivot = nums[start];
+        int i = start;
+        int j = end + 1;
+        long swaps = 0;
+        while (true) {
+            while (nums[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < nums[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            swap(nums, i, j);
+            if (SortMetrics.ENABLED) swaps++;
+        }
+        swap(nums, start, j);
+        if (SortMetrics.ENABLED) { // i和j每移动一步比较一次，选取基准的比较不计入。
+            SortMetrics.Probe probe = SortMetrics.probe();
+            probe.comparisons += (i - start) + (end + 1 - j);
+            probe.moves += swaps + 2;
+        }
+        return j;
+    }
+
+    /**
+     * 三数取中或九数取中（ninther），返回基准元素的索引。
+     */
+    private static int choosePivot(int[] nums, int start, int end) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            int a = medianOfThree(nums, start, start + step, start + 2 * step);
+            int b = medianOfThree(nums, mid - step, mid, mid + step);
+            int c = medianOfThree(nums, end - 2 * step, end - step, end);
+            return medianOfThree(nums, a, b, c);
+        }
+        return medianOfThree(nums, start, mid, end);
+    }
+
+    private static int medianOfThree(int[] nums, int a, int b, int c) {
+        if (nums[a] < nums[b]) {
+            return nums[b] < nums[c] ? b : (nums[a] < nums[c] ? c : a);
+        }
+        return nums[a] < nums[c] ? a : (nums[b] < nums[c] ? c : b);
+    }
+
+    private static void swap(int[] nums, int i, int j) {
+        int tmp = nums[i];
+        nums[i] = nums[j];
+        nums[j] = tmp;
+    }
+
+    private static void swap(int[] keys, int[] payload, int i, int j) {
+        swap(keys, i, j);
+        swap(payload, i, j);
     }
 }
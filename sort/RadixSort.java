@@ -1,16 +1,25 @@
 package cn.ning.algorithm.sort;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 public class RadixSort {
     public static void main(String[] args) {
         int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
                 9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        int[] copy = nums.clone();
         radixSort(nums, 3);
         System.out.print("radixSort: ");
         System.out.println(Arrays.toString(nums));
+        copy[0] = -3;
+        copy[1] = Integer.MIN_VALUE;
+        binaryRadixSort(copy, 8);
+        System.out.print("binaryRadixSort: ");
+        System.out.println(Arrays.toString(copy));
     }
 
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // 元素个数不超过该值时串行排序。
+
     /**
      * 基数排序
      * 原理：将待排序序列中所有元素（正整数）统一成同样的数字长度，然后按照位数从低位到高位对所有元素进行排序
@@ -43,4 +52,249 @@ public class RadixSort {
             radix *= 10; // 基数上移。
         }
     }
+
+    /**
+     * 二进制基数排序（LSD）
+     * 原理：每次取元素的bits个二进制位作为一个数位，从低位到高位对所有数位依次进行计数排序。为了支持负数，
+     *      将符号位取反作为排序的键，此时键的无符号顺序与原数的有符号顺序一致。排序的趟数由所有元素中不相同
+     *      的最高二进制位决定，无需调用者指定；所有元素在某一数位上都相同时，跳过该趟。所有趟的计数在一次遍
+     *      历中完成。
+     * 时间复杂度：O(d*(n+2^bits))，d为趟数，不超过32/bits。
+     * 空间复杂度：O(n+d*2^bits)。
+     * 稳定。
+     * @param nums 待排序序列
+     * @param bits 每个数位的二进制位数，取值1～16，通常取8、11或16
+     */
+    public static void binaryRadixSort(int[] nums, int bits) {
+        binaryRadixSort(nums, null, bits);
+    }
+
+    /**
+     * 二进制基数排序（LSD），对键排序的同时对附带的数据（如元素的原始索引）做相同的移动。
+     * @param keys 待排序的键
+     * @param payload 附带的数据，长度与keys相同，为null时只对键排序
+     * @param bits 每个数位的二进制位数，取值1～16
+     */
+    public static void binaryRadixSort(int[] keys, int[] payload, int bits) {
+        checkArgs(keys.length, payload == null ? keys.length : payload.length, bits);
+        int n = keys.length;
+        int passes = passes(keys, bits);
+        if (passes == 0) return;
+        int mask = (1 << bits) - 1;
+        int[][] counts = new int[passes][1 << bits];
+        for (int key : keys) { // 一次遍历统计所有趟的计数。
+            int flipped = key ^ Integer.MIN_VALUE;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(flipped >>> (p * bits)) & mask]++;
+            }
+        }
+        int[] src = keys;
+        int[] dst = new int[n];
+        int[] src_payload = payload;
+        int[] dst_payload = payload == null ? null : new int[n];
+        for (int p = 0; p < passes; p++) {
+            int shift = p * bits;
+            int[] index = counts[p];
+            if (index[((src[0] ^ Integer.MIN_VALUE) >>> shift) & mask] == n) continue; // 所有元素该数位相同。
+            toOffsets(index);
+            if (src_payload == null) {
+                for (int i = 0; i < n; i++) {
+                    int key = src[i];
+                    dst[index[((key ^ Integer.MIN_VALUE) >>> shift) & mask]++] = key;
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    int pos = index[((src[i] ^ Integer.MIN_VALUE) >>> shift) & mask]++;
+                    dst[pos] = src[i];
+                    dst_payload[pos] = src_payload[i];
+                }
+                int[] tmp = src_payload;
+                src_payload = dst_payload;
+                dst_payload = tmp;
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, n);
+            if (payload != null) {
+                System.arraycopy(src_payload, 0, payload, 0, n);
+            }
+        }
+    }
+
+    /**
+     * 间接排序（argsort）：不移动keys，返回排列p，使keys[p[0]] <= keys[p[1]] <= ...。
+     * 基数排序是稳定的，键相等的元素按原始索引从小到大排列。
+     * @param keys 键
+     * @param bits 每个数位的二进制位数，取值1～16
+     * @return 排序后各位置上元素的原始索引
+     */
+    public static int[] argsort(int[] keys, int bits) {
+        int[] perm = Permutation.identity(keys.length);
+        binaryRadixSort(keys.clone(), perm, bits);
+        return perm;
+    }
+
+    /**
+     * 二进制基数排序（LSD），64位整数版本。
+     * @param nums 待排序序列
+     * @param bits 每个数位的二进制位数，取值1～16
+     */
+    public static void binaryRadixSort(long[] nums, int bits) {
+        checkArgs(nums.length, nums.length, bits);
+        int n = nums.length;
+        if (n < 2) return;
+        long diff = 0;
+        for (long num : nums) {
+            diff |= num ^ nums[0];
+        }
+        int passes = (64 - Long.numberOfLeadingZeros(diff) + bits - 1) / bits;
+        if (passes == 0) return;
+        int mask = (1 << bits) - 1;
+        int[][] counts = new int[passes][1 << bits];
+        for (long num : nums) {
+            long flipped = num ^ Long.MIN_VALUE;
+            for (int p = 0; p < passes; p++) {
+                counts[p][(int) (flipped >>> (p * bits)) & mask]++;
+            }
+        }
+        long[] src = nums;
+        long[] dst = new long[n];
+        for (int p = 0; p < passes; p++) {
+            int shift = p * bits;
+            int[] index = counts[p];
+            if (index[(int) ((src[0] ^ Long.MIN_VALUE) >>> shift) & mask] == n) continue;
+            toOffsets(index);
+            for (int i = 0; i < n; i++) {
+                long num = src[i];
+                dst[index[(int) ((num ^ Long.MIN_VALUE) >>> shift) & mask]++] = num;
+            }
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != nums) {
+            System.arraycopy(src, 0, nums, 0, n);
+        }
+    }
+
+    /**
+     * 并行二进制基数排序，使用公共ForkJoinPool。
+     * @param nums 待排序序列
+     * @param bits 每个数位的二进制位数，取值1～16
+     */
+    public static void parallelRadixSort(int[] nums, int bits) {
+        parallelRadixSort(nums, null, bits, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行二进制基数排序
+     * 原理：将序列分成与线程数相同的若干块，每一趟中各线程先统计自己所在块的计数；然后按照（数位，块）的顺序
+     *      计算前缀和，得到每个线程在每个桶中的起始位置；最后各线程并行地把自己所在块的元素分配到目标位置。由于
+     *      同一个桶中块号小的元素排在前面，排序依然是稳定的。
+     * @param keys 待排序的键
+     * @param payload 附带的数据，为null时只对键排序
+     * @param bits 每个数位的二进制位数，取值1～16
+     * @param pool 执行任务的线程池
+     */
+    public static void parallelRadixSort(int[] keys, int[] payload, int bits, ForkJoinPool pool) {
+        int threads = pool.getParallelism();
+        if (keys.length <= PARALLEL_THRESHOLD || threads < 2) {
+            binaryRadixSort(keys, payload, bits);
+            return;
+        }
+        checkArgs(keys.length, payload == null ? keys.length : payload.length, bits);
+        int n = keys.length;
+        int passes = passes(keys, bits);
+        if (passes == 0) return;
+        int mask = (1 << bits) - 1;
+        int[] bounds = ForkJoinTasks.split(n, threads); // 各线程负责的块。
+        int[][] index = new int[threads][1 << bits];
+        int[][] src = {keys, payload};
+        int[][] dst = {new int[n], payload == null ? null : new int[n]};
+        for (int p = 0; p < passes; p++) {
+            int shift = p * bits;
+            int[] cur_keys = src[0];
+            ForkJoinTasks.invokeAll(pool, threads, t -> {
+                int[] count = index[t];
+                Arrays.fill(count, 0);
+                for (int i = bounds[t]; i < bounds[t + 1]; i++) {
+                    count[((cur_keys[i] ^ Integer.MIN_VALUE) >>> shift) & mask]++;
+                }
+            });
+            int first = ((cur_keys[0] ^ Integer.MIN_VALUE) >>> shift) & mask;
+            int same = 0;
+            for (int t = 0; t < threads; t++) {
+                same += index[t][first];
+            }
+            if (same == n) continue; // 所有元素该数位相同。
+            int sum = 0;
+            for (int d = 0; d <= mask; d++) {
+                for (int t = 0; t < threads; t++) {
+                    int tmp = index[t][d];
+                    index[t][d] = sum;
+                    sum += tmp;
+                }
+            }
+            int[][] from = src;
+            int[][] to = dst;
+            ForkJoinTasks.invokeAll(pool, threads, t -> {
+                int[] offset = index[t];
+                int[] from_keys = from[0];
+                int[] from_payload = from[1];
+                int[] to_keys = to[0];
+                int[] to_payload = to[1];
+                for (int i = bounds[t]; i < bounds[t + 1]; i++) {
+                    int pos = offset[((from_keys[i] ^ Integer.MIN_VALUE) >>> shift) & mask]++;
+                    to_keys[pos] = from_keys[i];
+                    if (from_payload != null) {
+                        to_payload[pos] = from_payload[i];
+                    }
+                }
+            });
+            src = to;
+            dst = from;
+        }
+        if (src[0] != keys) {
+            System.arraycopy(src[0], 0, keys, 0, n);
+            if (payload != null) {
+                System.arraycopy(src[1], 0, payload, 0, n);
+            }
+        }
+    }
+
+    /**
+     * 需要排序的趟数：所有元素中不相同的最高二进制位之上的数位无需排序。
+     */
+    private static int passes(int[] nums, int bits) {
+        if (nums.length < 2) return 0;
+        int diff = 0;
+        for (int num : nums) {
+            diff |= num ^ nums[0];
+        }
+        return (32 - Integer.numberOfLeadingZeros(diff) + bits - 1) / bits;
+    }
+
+    /**
+     * 将计数转换为每个桶的起始位置。
+     */
+    private static void toOffsets(int[] index) {
+        int sum = 0;
+        for (int j = 0; j < index.length; j++) {
+            int tmp = index[j];
+            index[j] = sum;
+            sum += tmp;
+        }
+    }
+
+    private static void checkArgs(int len, int payload_len, int bits) {
+        if (bits < 1 || bits > 16) {
+            throw new IllegalArgumentException("bits must be between 1 and 16: " + bits);
+        }
+        if (len != payload_len) {
+            throw new IllegalArgumentException("The array length is not equal.");
+        }
+    }
 }
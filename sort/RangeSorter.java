@@ -0,0 +1,15 @@
+package cn.ning.algorithm.sort;
+
+/**
+ * 对序列的一个区间进行排序，可用于组合排序算法（如桶排序中每个桶内的排序）。
+ * InsertSort::insertSort、HeapSort::heapSort、QuickSort::introSort等区间排序方法均可直接作为实现。
+ */
+@FunctionalInterface
+public interface RangeSorter {
+    /**
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引（包含）
+     */
+    void sort(int[] nums, int start, int end);
+}
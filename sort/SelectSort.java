@@ -21,6 +21,15 @@ public class SelectSort {
      * @param nums 待排序序列
      */
     public static void selectSort(int[] nums) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("selectSort", nums.length, () -> sort(nums));
+            return;
+        }
+        sort(nums);
+    }
+
+    private static void sort(int[] nums) {
+        long swaps = 0;
         for (int i=0; i < nums.length - 1; i++) {
             int min_index = i + 1; // 最小元素索引。
             for (int j = i + 1; j < nums.length; j++) { // 从未排序序列中找到最小元素。
@@ -31,7 +40,14 @@ public class SelectSort {
                 int tmp = nums[i];
                 nums[i] = nums[min_index];
                 nums[min_index] = tmp;
+                if (SortMetrics.ENABLED) swaps++;
             }
         }
+        if (SortMetrics.ENABLED) { // 第i趟比较n - i - 1次，再与nums[i]比较一次。
+            SortMetrics.Probe probe = SortMetrics.probe();
+            long n = nums.length;
+            probe.comparisons += n < 2 ? 0 : n * (n - 1) / 2 + n - 1;
+            probe.moves += swaps;
+        }
     }
 }
@@ -15,22 +15,138 @@ public class ShellSort {
      * 原理：将未排序序列按一定步长分为几个子序列，使未排序序列中的元素可以一次性朝最终的位置前进一大步，从而提升
      *      插入排序的性能。接着步长逐渐减小到1，最后经过直接插入排序得到有序序列。
      * 时间复杂度：由步长决定。最好，O(n(logn)^2)
-     * 空间复杂度：O(1)，最坏O(n)。
+     * 空间复杂度：O(1)。
      * 不稳定。
+     * 默认采用Sedgewick步长序列，在1K～100K规模的序列上实测最快，见SortBenchmark。
      */
     public static void shellSort(int[] nums) {
-        for (int array_num = nums.length / 2; array_num > 0; array_num /= 2) {
-            for (int i = array_num; i < nums.length - array_num + 1; i++) { // 对每个子序列进行插入排序。
-                int unindex = i;
-                int index = i - array_num;
-                int tmp = nums[unindex];
-                while (index >= (i % array_num) && tmp < nums[index]) {
-                    nums[unindex] = nums[index];
-                    unindex -= array_num;
-                    index -= array_num;
+        shellSort(nums, 0, nums.length - 1, GapSequence.SEDGEWICK);
+    }
+
+    /**
+     * 对序列的一个区间进行希尔排序，不分配内存。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @param sequence 步长序列
+     */
+    public static void shellSort(int[] nums, int start, int end, GapSequence sequence) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.run("shellSort", end - start + 1, () -> sort(nums, start, end, sequence));
+            return;
+        }
+        sort(nums, start, end, sequence);
+    }
+
+    private static void sort(int[] nums, int start, int end, GapSequence sequence) {
+        int len = end - start + 1;
+        if (len < 2) return;
+        if (sequence == GapSequence.SHELL) {
+            for (int gap = len / 2; gap > 0; gap /= 2) {
+                gapInsertSort(nums, start, end, gap);
+            }
+            return;
+        }
+        int[] gaps = sequence.gaps;
+        int k = gaps.length - 1;
+        while (k > 0 && gaps[k] >= len) k--; // 不小于区间长度的步长没有意义。
+        for (; k >= 0; k--) {
+            gapInsertSort(nums, start, end, gaps[k]);
+        }
+    }
+
+    /**
+     * 对步长为gap的每个子序列进行插入排序。
+     */
+    private static void gapInsertSort(int[] nums, int start, int end, int gap) {
+        long comparisons = 0;
+        long moves = 0;
+        for (int i = start + gap; i <= end; i++) {
+            int tmp = nums[i];
+            int index = i - gap;
+            while (index >= start && tmp < nums[index]) {
+                nums[index + gap] = nums[index];
+                index -= gap;
+            }
+            nums[index + gap] = tmp;
+            if (SortMetrics.ENABLED) { // 同InsertSort：每次后移一次比较，没有到达区间起点时还有一次失败的比较。
+                int shifts = (i - gap - index) / gap;
+                comparisons += shifts + (index >= start ? 1 : 0);
+                moves += shifts;
+            }
+        }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.Probe probe = SortMetrics.probe();
+            probe.comparisons += comparisons;
+            probe.moves += moves;
+        }
+    }
+
+    /**
+     * 步长序列。除SHELL外，每个序列的步长都预先计算好并按升序存放，排序时不分配内存。
+     */
+    public enum GapSequence {
+        /** Shell原始序列：n/2, n/4, ..., 1，最坏O(n^2)。 */
+        SHELL(null),
+        /** Ciura（2001）：1, 4, 10, 23, 57, 132, 301, 701, 1750，之后按2.25倍扩展。 */
+        CIURA(ciura()),
+        /** Tokuda（1992）：ceil((9^k - 4^k) / (5 * 4^(k-1)))，1, 4, 9, 20, 46, 103, ... */
+        TOKUDA(tokuda()),
+        /** Sedgewick（1982）：1, 8, 23, 77, 281, ...，即4^k + 3 * 2^(k-1) + 1，最坏O(n^(4/3))。 */
+        SEDGEWICK(sedgewick()),
+        /** Pratt（1971）：所有形如2^p * 3^q的数，最坏O(n(logn)^2)，但步长个数较多。 */
+        PRATT(pratt());
+
+        private final int[] gaps;
+
+        GapSequence(int[] gaps) {
+            this.gaps = gaps;
+        }
+
+        private static int[] ciura() {
+            int[] base = {1, 4, 10, 23, 57, 132, 301, 701, 1750};
+            int[] gaps = Arrays.copyOf(base, 64);
+            int len = base.length;
+            for (long gap = (long) (base[len - 1] * 2.25); gap < Integer.MAX_VALUE; gap = (long) (gap * 2.25)) {
+                gaps[len++] = (int) gap;
+            }
+            return Arrays.copyOf(gaps, len);
+        }
+
+        private static int[] tokuda() {
+            int[] gaps = new int[64];
+            int len = 0;
+            for (int k = 1; ; k++) {
+                double gap = Math.ceil((Math.pow(9, k) - Math.pow(4, k)) / (5 * Math.pow(4, k - 1)));
+                if (gap >= Integer.MAX_VALUE) break;
+                gaps[len++] = (int) gap;
+            }
+            return Arrays.copyOf(gaps, len);
+        }
+
+        private static int[] sedgewick() {
+            int[] gaps = new int[64];
+            int len = 0;
+            gaps[len++] = 1;
+            for (int k = 1; ; k++) {
+                long gap = (1L << (2 * k)) + 3L * (1L << (k - 1)) + 1;
+                if (gap >= Integer.MAX_VALUE) break;
+                gaps[len++] = (int) gap;
+            }
+            return Arrays.copyOf(gaps, len);
+        }
+
+        private static int[] pratt() {
+            int[] gaps = new int[1024];
+            int len = 0;
+            for (long p = 1; p < Integer.MAX_VALUE; p *= 2) {
+                for (long q = p; q < Integer.MAX_VALUE; q *= 3) {
+                    gaps[len++] = (int) q;
                 }
-                nums[unindex] = tmp;
             }
+            gaps = Arrays.copyOf(gaps, len);
+            Arrays.sort(gaps);
+            return gaps;
         }
     }
 }
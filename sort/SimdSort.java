@@ -0,0 +1,76 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+
+/**
+ * SIMD排序引擎
+ * 运行时存在Vector API（启动参数--add-modules jdk.incubator.vector）时，使用VectorKernels中的向量化内核：
+ * 小区间用向量排序网络，大区间用向量化划分的快速排序；否则退回标量的QuickSort.introSort。
+ * 两种实现的结果完全相同，调用者无需关心当前使用的是哪一种。
+ *
+ * 注意：VectorKernels放在单独的sort/vector目录下，需要用javac --add-modules jdk.incubator.vector编译：
+ *          javac --add-modules jdk.incubator.vector -d out sort/*.java sort/vector/*.java
+ *          java --add-modules jdk.incubator.vector -cp out cn.ning.algorithm.sort.SimdSort
+ *      只编译sort/*.java时不需要该参数，SimdSort找不到VectorKernels，使用标量实现；运行时缺少该模块时
+ *      同样不会加载VectorKernels，其余类不受影响。
+ */
+public class SimdSort {
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        sort(nums);
+        System.out.print("simdSort(" + (isVectorized() ? "vector" : "scalar") + "): ");
+        System.out.println(Arrays.toString(nums));
+    }
+
+    /**
+     * 排序内核。
+     */
+    interface Kernel {
+        /**
+         * 对nums[from, to)排序。
+         */
+        void sort(int[] nums, int from, int to);
+    }
+
+    private static final Kernel SCALAR = (nums, from, to) -> QuickSort.introSort(nums, from, to - 1);
+    private static final Kernel KERNEL = loadKernel();
+
+    private static Kernel loadKernel() {
+        if (Boolean.getBoolean("simd.disable")
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return SCALAR;
+        }
+        try {
+            return (Kernel) Class.forName("cn.ning.algorithm.sort.VectorKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) { // 未编译或平台不支持。
+            return SCALAR;
+        }
+    }
+
+    /**
+     * 当前是否使用向量化内核。
+     */
+    public static boolean isVectorized() {
+        return KERNEL != SCALAR;
+    }
+
+    /**
+     * SIMD排序。
+     * @param nums 待排序序列
+     */
+    public static void sort(int[] nums) {
+        KERNEL.sort(nums, 0, nums.length);
+    }
+
+    /**
+     * 对序列的一个区间进行SIMD排序。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void sort(int[] nums, int start, int end) {
+        KERNEL.sort(nums, start, end + 1);
+    }
+}
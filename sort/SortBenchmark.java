@@ -0,0 +1,417 @@
+package cn.ning.algorithm.sort;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * 排序算法基准测试
+ * 对本包中每一个排序算法的静态入口，在不同规模、不同分布的数据上进行测试，输出吞吐量（次/秒）、
+ * 每个元素耗时（ns/element）以及内存分配速率（MB/s），以便根据实际数据选择排序算法。
+ *
+ * 用法：java cn.ning.algorithm.sort.SortBenchmark [规模列表] [分布列表] [排序算法列表]
+ *      例如：java cn.ning.algorithm.sort.SortBenchmark 1000,1000000 uniform,sorted quickSort,mergeSort
+ *      不指定参数时，规模为1K到100M，测试所有分布和所有排序算法。
+ *      预热次数、测量次数和单次测量的最短时间可以通过系统属性bench.warmup、bench.iterations和
+ *      bench.minNanos调整。100M规模需要足够大的堆，例如-Xmx8g。
+ *      所有排序算法在同一个JVM中运行，先测试的算法在JIT类型剖面上占优，结果有噪声；需要可复现的结果时
+ *      使用jmh目录下的SortJmh（gradle jmh），每个组合在独立的JVM中运行。
+ *
+ * 注意：O(n^2)的排序算法（冒泡、选择、插入）只在规模不超过QUADRATIC_LIMIT时进行测试；
+ *      原始快速排序在有序、逆序等分布上会退化为O(n^2)并栈溢出，同样只在小规模上测试。
+ */
+public class SortBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+    private static final int QUADRATIC_LIMIT = 10_000; // O(n^2)排序算法的最大测试规模。
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("bench.warmup", 3); // 预热次数。
+    private static final int MEASURE_ITERATIONS = Integer.getInteger("bench.iterations", 5); // 测量次数。
+    private static final long MIN_MEASURE_NANOS = Long.getLong("bench.minNanos", 200_000_000L); // 单次测量的最短时间。
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : DEFAULT_SIZES;
+        Distribution[] distributions = args.length > 1 ? parseDistributions(args[1]) : Distribution.values();
+        Map<String, Target> sorters = sorters();
+        if (args.length > 2) {
+            Map<String, Target> selected = new LinkedHashMap<>();
+            for (String name : args[2].split(",")) {
+                Target sorter = sorters.get(name);
+                if (sorter == null) {
+                    throw new IllegalArgumentException("unknown sorter: " + name);
+                }
+                selected.put(name, sorter);
+            }
+            sorters = selected;
+        }
+
+        System.out.printf("%-16s %-23s %12s %14s %12s %12s%n",
+                "sorter", "distribution", "size", "ops/s", "ns/element", "alloc MB/s");
+        for (int size : sizes) {
+            for (Distribution distribution : distributions) {
+                int[] data = distribution.generate(size, new Random(42));
+                for (Map.Entry<String, Target> entry : sorters.entrySet()) {
+                    Target sorter = entry.getValue();
+                    if (!sorter.supports(size, distribution)) {
+                        continue;
+                    }
+                    Result res = measure(sorter, data);
+                    System.out.printf("%-16s %-23s %12d %14.3f %12.3f %12.1f%n",
+                            entry.getKey(), distribution.name().toLowerCase(), size,
+                            res.opsPerSecond, res.nanosPerElement, res.allocMBPerSecond);
+                }
+            }
+        }
+    }
+
+    /**
+     * 本包中所有排序算法的静态入口。
+     */
+    static Map<String, Target> sorters() {
+        Map<String, Target> sorters = new LinkedHashMap<>();
+        sorters.put("adaptive", new Target(Sorter::sort, false, false));
+        sorters.put("quickSort", new Target(nums -> QuickSort.quickSort(nums, 0, nums.length - 1),
+                false, true));
+        sorters.put("introSort", new Target(nums -> QuickSort.introSort(nums, 0, nums.length - 1),
+                false, false));
+        sorters.put("threeWayQuick", new Target(nums -> QuickSort.threeWayQuickSort(nums, 0, nums.length - 1),
+                false, false));
+        sorters.put("dualPivotQuick", new Target(nums -> QuickSort.dualPivotQuickSort(nums, 0, nums.length - 1),
+                false, false));
+        sorters.put("simdSort", new Target(SimdSort::sort, false, false));
+        sorters.put("mergeSort", new Target(MergeSort::mergeSort, false, false));
+        sorters.put("recursiveMerge", new Target(MergeSort::recursiveMergeSort, false, false));
+        sorters.put("parallelMerge", new Target(MergeSort::parallelMergeSort, false, false));
+        sorters.put("timSort", new Target(TimSort::timSort, false, false));
+        sorters.put("heapSort", new Target(HeapSort::heapSort, false, false));
+        sorters.put("heapSort4", new Target(nums -> HeapSort.heapSort(nums, 0, nums.length - 1, 4), false, false));
+        sorters.put("heapSort8", new Target(nums -> HeapSort.heapSort(nums, 0, nums.length - 1, 8), false, false));
+        sorters.put("bottomUpHeap", new Target(nums -> HeapSort.bottomUpHeapSort(nums, 0, nums.length - 1), false, false));
+        sorters.put("shellSort", new Target(ShellSort::shellSort, false, false));
+        for (ShellSort.GapSequence sequence : ShellSort.GapSequence.values()) {
+            String name = sequence.name().charAt(0) + sequence.name().substring(1).toLowerCase();
+            sorters.put("shell" + name, new Target(nums -> ShellSort.shellSort(nums, 0, nums.length - 1, sequence),
+                    false, false));
+        }
+        sorters.put("radixSort", new Target(nums -> RadixSort.radixSort(nums, digits(max(nums))),
+                false, false, true));
+        sorters.put("binaryRadix8", new Target(nums -> RadixSort.binaryRadixSort(nums, 8), false, false));
+        sorters.put("binaryRadix11", new Target(nums -> RadixSort.binaryRadixSort(nums, 11), false, false));
+        sorters.put("binaryRadix16", new Target(nums -> RadixSort.binaryRadixSort(nums, 16), false, false));
+        sorters.put("parallelRadix", new Target(nums -> RadixSort.parallelRadixSort(nums, 8), false, false));
+        sorters.put("countingSort", new Target(nums -> CountingSort.countingSort(nums, max(nums)),
+                false, false, true));
+        sorters.put("countingAuto", new Target(CountingSort::countingSort, false, false, true));
+        sorters.put("parallelCounting", new Target(CountingSort::parallelCountingSort, false, false));
+        sorters.put("bucketSort", new Target(BucketSort::bucketSort, false, false));
+        sorters.put("parallelBucket", new Target(BucketSort::parallelBucketSort, false, false));
+        sorters.put("insertSort", new Target(InsertSort::insertSort, true, false));
+        sorters.put("selectSort", new Target(SelectSort::selectSort, true, false));
+        sorters.put("bubbleSort", new Target(BubbleSort::bubbleSort, true, false));
+        return sorters;
+    }
+
+    /**
+     * 对一个排序算法进行预热和测量。每次测量都在原始数据的副本上排序，复制的时间和内存不计入结果。
+     */
+    static Result measure(Target sorter, int[] data) {
+        int[] work = new int[data.length];
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            sorter.sort.accept(work);
+        }
+        checkSorted(work);
+
+        double best_ops = 0;
+        double best_alloc = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            long elapsed = 0;
+            long allocated = 0;
+            long ops = 0;
+            while (elapsed < MIN_MEASURE_NANOS || ops == 0) {
+                System.arraycopy(data, 0, work, 0, data.length);
+                long bytes = allocatedBytes();
+                long start = System.nanoTime();
+                sorter.sort.accept(work);
+                elapsed += System.nanoTime() - start;
+                allocated += allocatedBytes() - bytes;
+                ops++;
+            }
+            double ops_per_second = ops * 1e9 / elapsed;
+            if (ops_per_second > best_ops) {
+                best_ops = ops_per_second;
+                best_alloc = allocated * 1e9 / elapsed / (1024 * 1024);
+            }
+        }
+        return new Result(best_ops, 1e9 / best_ops / data.length, best_alloc);
+    }
+
+    /**
+     * 当前线程已分配的字节数，JVM不支持时返回0。
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    static void checkSorted(int[] nums) {
+        for (int i = 1; i < nums.length; i++) {
+            if (nums[i - 1] > nums[i]) {
+                throw new IllegalStateException("not sorted at index " + i);
+            }
+        }
+    }
+
+    private static int max(int[] nums) {
+        int max_num = 0;
+        for (int num : nums) {
+            max_num = num > max_num ? num : max_num;
+        }
+        return max_num;
+    }
+
+    /**
+     * 十进制位数，供RadixSort使用。
+     */
+    private static int digits(int num) {
+        int len = 1;
+        while (num >= 10) {
+            num /= 10;
+            len++;
+        }
+        return len;
+    }
+
+    private static int[] parseSizes(String arg) {
+        String[] parts = arg.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim().replace("_", ""));
+        }
+        return sizes;
+    }
+
+    private static Distribution[] parseDistributions(String arg) {
+        String[] parts = arg.split(",");
+        Distribution[] distributions = new Distribution[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            distributions[i] = Distribution.valueOf(parts[i].trim().toUpperCase());
+        }
+        return distributions;
+    }
+
+    /**
+     * 待测试的排序算法。
+     */
+    static class Target {
+        final Consumer<int[]> sort;
+        final boolean quadratic; // 是否总是O(n^2)。
+        final boolean presortedQuadratic; // 在有序、逆序等分布上是否退化为O(n^2)。
+        final boolean smallRange; // 是否只能排序取值范围较小的非负序列（十进制基数排序、计数排序）。
+
+        Target(Consumer<int[]> sort, boolean quadratic, boolean presortedQuadratic) {
+            this(sort, quadratic, presortedQuadratic, false);
+        }
+
+        Target(Consumer<int[]> sort, boolean quadratic, boolean presortedQuadratic, boolean smallRange) {
+            this.sort = sort;
+            this.quadratic = quadratic;
+            this.presortedQuadratic = presortedQuadratic;
+            this.smallRange = smallRange;
+        }
+
+        boolean supports(int size, Distribution distribution) {
+            if (smallRange && distribution.fullRange) {
+                return false;
+            }
+            return size <= QUADRATIC_LIMIT
+                    || !(quadratic || (presortedQuadratic && distribution.degenerate));
+        }
+    }
+
+    /**
+     * 测量结果。
+     */
+    static class Result {
+        final double opsPerSecond;
+        final double nanosPerElement;
+        final double allocMBPerSecond;
+
+        Result(double opsPerSecond, double nanosPerElement, double allocMBPerSecond) {
+            this.opsPerSecond = opsPerSecond;
+            this.nanosPerElement = nanosPerElement;
+            this.allocMBPerSecond = allocMBPerSecond;
+        }
+    }
+
+    /**
+     * 测试数据分布。
+     * FULL_RANGE开头的分布取值覆盖整个int范围（包括负数），其余分布的元素均为非负数且取值范围不超过规模，
+     * 计数排序和十进制基数排序只在后者上测试。Sorter在取值范围不超过元素个数时总是选择计数排序，
+     * 它的其他分支（基数排序、SimdSort、TimSort、快速排序）只有在FULL_RANGE开头的分布上才会被测到。
+     */
+    enum Distribution {
+        /** 均匀分布。 */
+        UNIFORM(false) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = new int[size];
+                for (int i = 0; i < size; i++) {
+                    nums[i] = random.nextInt(size);
+                }
+                return nums;
+            }
+        },
+        /** 正序。 */
+        SORTED(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = UNIFORM.generate(size, random);
+                Arrays.sort(nums);
+                return nums;
+            }
+        },
+        /** 逆序。 */
+        REVERSE(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = SORTED.generate(size, random);
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    int tmp = nums[i];
+                    nums[i] = nums[j];
+                    nums[j] = tmp;
+                }
+                return nums;
+            }
+        },
+        /** 风琴管：前半部分递增，后半部分递减。 */
+        ORGAN_PIPE(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = new int[size];
+                for (int i = 0; i < size; i++) {
+                    nums[i] = i < size / 2 ? i : size - i;
+                }
+                return nums;
+            }
+        },
+        /** 只有少量不同的值。 */
+        FEW_DISTINCT(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = new int[size];
+                for (int i = 0; i < size; i++) {
+                    nums[i] = random.nextInt(16);
+                }
+                return nums;
+            }
+        },
+        /** 基本有序：有序序列中随机交换1%的元素对。 */
+        NEARLY_SORTED(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = SORTED.generate(size, random);
+                for (int k = 0; k < size / 100; k++) {
+                    int i = random.nextInt(size);
+                    int j = random.nextInt(size);
+                    int tmp = nums[i];
+                    nums[i] = nums[j];
+                    nums[j] = tmp;
+                }
+                return nums;
+            }
+        },
+        /** 由RUNS个有序片段拼接而成。 */
+        SORTED_RUNS(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = UNIFORM.generate(size, random);
+                int run = Math.max(size / RUNS, 1);
+                for (int start = 0; start < size; start += run) {
+                    Arrays.sort(nums, start, Math.min(start + run, size));
+                }
+                return nums;
+            }
+        },
+        /** Zipf分布（s = 1），少数值出现频率很高。 */
+        ZIPFIAN(true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int n = Math.max(size / 10, 1); // 不同值的个数。
+                double[] cdf = new double[n];
+                double sum = 0;
+                for (int i = 0; i < n; i++) {
+                    sum += 1.0 / (i + 1);
+                    cdf[i] = sum;
+                }
+                int[] nums = new int[size];
+                for (int i = 0; i < size; i++) {
+                    int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                    nums[i] = index >= 0 ? index : Math.min(-index - 1, n - 1);
+                }
+                return nums;
+            }
+        },
+        /** 在整个int范围内均匀分布。 */
+        FULL_RANGE(false, true) {
+            @Override
+            int[] generate(int size, Random random) {
+                int[] nums = new int[size];
+                for (int i = 0; i < size; i++) {
+                    nums[i] = random.nextInt();
+                }
+                return nums;
+            }
+        },
+        /** SORTED_RUNS的取值按顺序放大到整个int范围。 */
+        FULL_RANGE_RUNS(true, true) {
+            @Override
+            int[] generate(int size, Random random) {
+                return spread(SORTED_RUNS.generate(size, random));
+            }
+        },
+        /** FEW_DISTINCT的取值按顺序放大到整个int范围，不同值的个数不变。 */
+        FULL_RANGE_FEW_DISTINCT(true, true) {
+            @Override
+            int[] generate(int size, Random random) {
+                return spread(FEW_DISTINCT.generate(size, random));
+            }
+        };
+
+        // 有序片段的个数，可以通过系统属性bench.runs调整。
+        private static final int RUNS = Integer.getInteger("bench.runs", 16);
+
+        final boolean degenerate; // 原始快速排序在该分布上是否退化。
+        final boolean fullRange; // 取值是否覆盖整个int范围。
+
+        Distribution(boolean degenerate) {
+            this(degenerate, false);
+        }
+
+        Distribution(boolean degenerate, boolean fullRange) {
+            this.degenerate = degenerate;
+            this.fullRange = fullRange;
+        }
+
+        abstract int[] generate(int size, Random random);
+
+        /**
+         * 把非负序列的取值保序地线性放大到[Integer.MIN_VALUE, Integer.MAX_VALUE]，相等的元素仍然相等。
+         */
+        private static int[] spread(int[] nums) {
+            int max = 0;
+            for (int num : nums) {
+                max = Math.max(max, num);
+            }
+            long step = 0xFFFFFFFFL / Math.max(max, 1);
+            for (int i = 0; i < nums.length; i++) {
+                nums[i] = (int) (Integer.MIN_VALUE + nums[i] * step);
+            }
+            return nums;
+        }
+    }
+}
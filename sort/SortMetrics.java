@@ -0,0 +1,223 @@
+package cn.ning.algorithm.sort;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 排序计数器
+ * 记录每次排序调用的比较次数、元素移动次数（一次交换计为一次）、递归深度、辅助空间字节数和耗时，
+ * 以JFR事件cn.ning.algorithm.sort.Sort的形式提交，同时交给setListener设置的回调。
+ * 用于在线上找出退化为平方复杂度的调用，例如在有序序列上使用QuickSort.quickSort。
+ *
+ * 只有启动参数-Dsort.metrics=true时才开启。ENABLED是static final常量，关闭时JIT把所有
+ * if (SortMetrics.ENABLED)分支作为死代码删除，排序代码没有任何额外开销。
+ * 计数器按线程保存；排序内部调用的其他排序（如内省排序中的插入排序、堆排序）计入最外层调用，只提交一次。
+ *
+ * 统计的排序：BubbleSort.bubbleSort、SelectSort.selectSort、InsertSort.insertSort、ShellSort.shellSort、
+ * QuickSort.quickSort、QuickSort.introSort、MergeSort.recursiveMergeSort和HeapSort.heapSort(int[], int, int)。
+ * 其他排序（d叉堆、自底向上堆排序、基数排序、计数排序、并行排序等）没有计数，单独调用时不提交事件。
+ */
+public final class SortMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("sort.metrics");
+
+    /**
+     * 一次排序调用的统计结果。
+     */
+    public static final class Sample {
+        private final String algorithm;
+        private final int length;
+        private final long comparisons;
+        private final long moves;
+        private final int max_depth;
+        private final long scratch_bytes;
+        private final long nanos;
+
+        Sample(Probe probe, long nanos) {
+            this.algorithm = probe.algorithm;
+            this.length = probe.length;
+            this.comparisons = probe.comparisons;
+            this.moves = probe.moves;
+            this.max_depth = probe.max_depth;
+            this.scratch_bytes = probe.scratch_bytes;
+            this.nanos = nanos;
+        }
+
+        public String algorithm() {
+            return algorithm;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public long comparisons() {
+            return comparisons;
+        }
+
+        public long moves() {
+            return moves;
+        }
+
+        public int maxDepth() {
+            return max_depth;
+        }
+
+        public long scratchBytes() {
+            return scratch_bytes;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + "(n=" + length + "): comparisons=" + comparisons + ", moves=" + moves
+                    + ", maxDepth=" + max_depth + ", scratchBytes=" + scratch_bytes + ", nanos=" + nanos;
+        }
+    }
+
+    /**
+     * 排序调用结束时的回调，在执行排序的线程中调用。
+     */
+    public interface Listener {
+        void onSort(Sample sample);
+    }
+
+    private static volatile Listener listener;
+
+    private static final ThreadLocal<Probe> PROBES = ThreadLocal.withInitial(Probe::new);
+
+    private SortMetrics() {
+    }
+
+    /**
+     * 设置回调，为null时不回调。未开启时回调不会被调用。
+     */
+    public static void setListener(Listener l) {
+        listener = l;
+    }
+
+    /**
+     * 统计一次排序调用，只在ENABLED为true时调用。
+     * @param algorithm 算法名
+     * @param length 元素个数
+     * @param sort 排序
+     */
+    static void run(String algorithm, int length, Runnable sort) {
+        Probe probe = begin(algorithm, length);
+        try {
+            sort.run();
+        } finally {
+            end(probe);
+        }
+    }
+
+    /**
+     * 当前线程的计数器，只在ENABLED为true时调用。
+     */
+    static Probe probe() {
+        return PROBES.get();
+    }
+
+    /**
+     * 开始一次排序调用。嵌套的调用只增加深度，计数累加到最外层调用上。
+     */
+    static Probe begin(String algorithm, int length) {
+        Probe probe = PROBES.get();
+        if (probe.depth == 0) {
+            probe.algorithm = algorithm;
+            probe.length = length;
+            probe.comparisons = 0;
+            probe.moves = 0;
+            probe.max_depth = 0;
+            probe.scratch_bytes = 0;
+            probe.event = new SortEvent();
+            probe.event.begin();
+            probe.start = System.nanoTime();
+        }
+        probe.enter();
+        return probe;
+    }
+
+    /**
+     * 结束一次排序调用，最外层调用结束时提交JFR事件并回调。
+     */
+    static void end(Probe probe) {
+        probe.exit();
+        if (probe.depth > 0) return;
+        long nanos = System.nanoTime() - probe.start;
+        SortEvent event = probe.event;
+        probe.event = null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = probe.algorithm;
+            event.length = probe.length;
+            event.comparisons = probe.comparisons;
+            event.moves = probe.moves;
+            event.maxDepth = probe.max_depth;
+            event.scratchBytes = probe.scratch_bytes;
+            event.commit();
+        }
+        Listener l = listener;
+        if (l != null) {
+            l.onSort(new Sample(probe, nanos));
+        }
+    }
+
+    /**
+     * 一个线程上正在进行的排序调用的计数。
+     */
+    static final class Probe {
+        long comparisons;
+        long moves;
+        long scratch_bytes;
+        private String algorithm;
+        private int length;
+        private int depth;
+        private int max_depth;
+        private long start;
+        private SortEvent event;
+
+        /**
+         * 进入一层递归。
+         */
+        void enter() {
+            if (++depth > max_depth) max_depth = depth;
+        }
+
+        /**
+         * 退出一层递归。
+         */
+        void exit() {
+            depth--;
+        }
+    }
+
+    @Name("cn.ning.algorithm.sort.Sort")
+    @Label("Sort")
+    @Category("Algorithm")
+    @Description("One top-level call of a sort in cn.ning.algorithm.sort")
+    static final class SortEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Length")
+        int length;
+
+        @Label("Comparisons")
+        long comparisons;
+
+        @Label("Moves")
+        long moves;
+
+        @Label("Max Depth")
+        int maxDepth;
+
+        @Label("Scratch Bytes")
+        long scratchBytes;
+    }
+}
@@ -0,0 +1,206 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 自适应排序
+ * 根据序列的特征从本包中选择最快的排序算法，调用者不必自己在计数排序、基数排序、插入排序和快速排序之间选择。
+ * 原理：先对序列做一次线性扫描，求出最小值、最大值和下降的位置数（即有序片段数减一），必要时再抽样估计不同
+ *      值的个数，然后按以下顺序选择：
+ *      1. 元素个数不超过INSERTION_THRESHOLD：插入排序。
+ *      2. 已经有序：直接返回；非递增：原地反转。
+ *      3. 有序片段不超过MAX_RUNS个：TimSort，只需要合并这几个片段。
+ *      4. 取值范围max - min + 1不超过元素个数：计数排序，计数数组不大于原序列，不会因取值范围过大而耗尽内存。
+ *      5. 元素个数不小于RADIX_THRESHOLD：重复值很多且可以使用SIMD时用SimdSort，否则用二进制基数排序。
+ *      6. 其余情况：重复值很多时用三路快速排序，否则用内省排序。
+ *      元素个数不小于并行阈值且线程池有多个线程时，计数排序和基数排序使用对应的并行版本。
+ * 各阈值在取值覆盖整个int范围的数据上比较候选算法得到，结果与机器有关，可以用以下命令重新测量：
+ *      gradle jmh -Pjmh="\.SortJmh -p size=1000,1000000
+ *          -p distribution=full_range,full_range_runs,full_range_few_distinct
+ *          -p sorter=adaptive,introSort,threeWayQuick,simdSort,timSort,binaryRadix8,binaryRadix11"
+ *      有序片段的个数默认为16，MAX_RUNS附近的比较加上-jvmArgsAppend -Dbench.runs=4。
+ * 时间复杂度：O(n)的扫描加上所选算法的复杂度，最坏O(nlogn)。
+ * 空间复杂度：取决于所选算法，最多O(n)。
+ * 不稳定（int没有附带数据，稳定性没有意义）。
+ */
+public class Sorter {
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        System.out.println("choose: " + choose(nums, 0, nums.length - 1));
+        sort(nums);
+        System.out.print("sort: ");
+        System.out.println(Arrays.toString(nums));
+    }
+
+    private static final int INSERTION_THRESHOLD = 32; // 元素个数不超过该值时采用插入排序。
+    private static final int RADIX_THRESHOLD = 1024; // 元素个数不小于该值时采用基数排序。
+    private static final int WIDE_DIGIT_THRESHOLD = 1 << 18; // 元素个数不小于该值时基数排序每趟取11位。
+    private static final int MAX_RUNS = 4; // 有序片段不超过该值时采用TimSort。
+    private static final int SAMPLE_SIZE = 64; // 估计不同值个数时的抽样个数。
+    private static final int FEW_DISTINCT = SAMPLE_SIZE / 4; // 样本中不同值不超过该值时认为重复值很多。
+    // 元素个数不小于该值时使用并行排序，可以通过系统属性sort.parallelThreshold调整。
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("sort.parallelThreshold", 1 << 20);
+
+    /**
+     * 可选择的排序算法。
+     */
+    public enum Algorithm {
+        /** 已经有序，不需要排序。 */
+        NONE,
+        /** 非递增，原地反转。 */
+        REVERSE,
+        /** InsertSort.insertSort。 */
+        INSERT,
+        /** TimSort.timSort。 */
+        TIM,
+        /** CountingSort.countingSort。 */
+        COUNTING,
+        /** CountingSort.parallelCountingSort。 */
+        PARALLEL_COUNTING,
+        /** RadixSort.binaryRadixSort。 */
+        RADIX,
+        /** RadixSort.parallelRadixSort。 */
+        PARALLEL_RADIX,
+        /** SimdSort.sort。 */
+        SIMD,
+        /** QuickSort.threeWayQuickSort。 */
+        THREE_WAY_QUICK,
+        /** QuickSort.introSort。 */
+        INTRO
+    }
+
+    /**
+     * 自适应排序，元素足够多时使用公共ForkJoinPool并行排序。
+     * @param nums 待排序序列
+     */
+    public static void sort(int[] nums) {
+        sort(nums, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 自适应排序，元素足够多时使用指定的线程池并行排序。
+     * @param nums 待排序序列
+     * @param pool 执行任务的线程池
+     */
+    public static void sort(int[] nums, ForkJoinPool pool) {
+        sort(nums, 0, nums.length - 1, choose(nums, 0, nums.length - 1, pool.getParallelism()), pool);
+    }
+
+    /**
+     * 对序列的一个区间进行自适应排序，不使用并行排序。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void sort(int[] nums, int start, int end) {
+        sort(nums, start, end, choose(nums, start, end), null);
+    }
+
+    /**
+     * 返回sort(nums, start, end)将采用的排序算法，不修改序列。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     * @return 排序算法
+     */
+    public static Algorithm choose(int[] nums, int start, int end) {
+        return choose(nums, start, end, 1);
+    }
+
+    private static Algorithm choose(int[] nums, int start, int end, int threads) {
+        int n = end - start + 1;
+        if (n <= INSERTION_THRESHOLD) return n <= 1 ? Algorithm.NONE : Algorithm.INSERT;
+        int min = nums[start];
+        int max = nums[start];
+        int descents = 0; // nums[i] > nums[i + 1]的位置数。
+        int ascents = 0; // nums[i] < nums[i + 1]的位置数。
+        for (int i = start + 1; i <= end; i++) {
+            int num = nums[i];
+            int prev = nums[i - 1];
+            if (num < prev) descents++;
+            if (num > prev) ascents++;
+            if (num < min) min = num;
+            if (num > max) max = num;
+        }
+        if (descents == 0) return Algorithm.NONE;
+        if (ascents == 0) return Algorithm.REVERSE;
+        if (descents < MAX_RUNS) return Algorithm.TIM;
+        boolean parallel = threads > 1 && n >= PARALLEL_THRESHOLD && start == 0 && end == nums.length - 1;
+        if ((long) max - min < n) {
+            return parallel ? Algorithm.PARALLEL_COUNTING : Algorithm.COUNTING;
+        }
+        boolean few_distinct = fewDistinct(nums, start, end);
+        if (n >= RADIX_THRESHOLD) {
+            if (few_distinct && SimdSort.isVectorized()) return Algorithm.SIMD;
+            return parallel ? Algorithm.PARALLEL_RADIX : Algorithm.RADIX;
+        }
+        return few_distinct ? Algorithm.THREE_WAY_QUICK : Algorithm.INTRO;
+    }
+
+    /**
+     * 均匀抽取SAMPLE_SIZE个元素，按其中不同值的个数判断序列中是否有大量重复值。
+     */
+    private static boolean fewDistinct(int[] nums, int start, int end) {
+        int n = end - start + 1;
+        int[] sample = new int[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = nums[start + (int) ((long) n * i / SAMPLE_SIZE)];
+        }
+        InsertSort.insertSort(sample, 0, SAMPLE_SIZE - 1);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            if (sample[i] != sample[i - 1]) distinct++;
+        }
+        return distinct <= FEW_DISTINCT;
+    }
+
+    private static void sort(int[] nums, int start, int end, Algorithm algorithm, ForkJoinPool pool) {
+        int n = end - start + 1;
+        switch (algorithm) {
+            case NONE:
+                break;
+            case REVERSE:
+                for (int i = start, j = end; i < j; i++, j--) {
+                    int tmp = nums[i];
+                    nums[i] = nums[j];
+                    nums[j] = tmp;
+                }
+                break;
+            case INSERT:
+                InsertSort.insertSort(nums, start, end);
+                break;
+            case TIM:
+                TimSort.timSort(nums, start, end);
+                break;
+            case COUNTING:
+                CountingSort.countingSort(nums, start, end, null);
+                break;
+            case PARALLEL_COUNTING:
+                CountingSort.parallelCountingSort(nums, pool);
+                break;
+            case RADIX:
+                int bits = n < WIDE_DIGIT_THRESHOLD ? 8 : 11;
+                if (start == 0 && end == nums.length - 1) {
+                    RadixSort.binaryRadixSort(nums, bits);
+                    break;
+                }
+                int[] slice = Arrays.copyOfRange(nums, start, end + 1);
+                RadixSort.binaryRadixSort(slice, bits);
+                System.arraycopy(slice, 0, nums, start, n);
+                break;
+            case PARALLEL_RADIX:
+                RadixSort.parallelRadixSort(nums, null, 8, pool);
+                break;
+            case SIMD:
+                SimdSort.sort(nums, start, end);
+                break;
+            case THREE_WAY_QUICK:
+                QuickSort.threeWayQuickSort(nums, start, end);
+                break;
+            default:
+                QuickSort.introSort(nums, start, end);
+        }
+    }
+}
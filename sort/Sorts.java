@@ -0,0 +1,1283 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 排序门面
+ * 为本包中的排序算法提供int[]、long[]、double[]、float[]、short[]、char[]以及T[] + Comparator的重载，
+ * 基本类型直接在原数组上排序，不做装箱。所有方法都对区间a[from, to)排序，与Arrays.sort的约定一致，
+ * 因此可以不复制地对数组的一部分排序。
+ *
+ * 比较排序：insertSort、heapSort、introSort、mergeSort，支持所有类型。
+ * 非比较排序：radixSort支持int[]、long[]；countingSort支持int[]、short[]、char[]。
+ *
+ * double[]和float[]的排序顺序与Arrays.sort相同：-0.0排在0.0之前，NaN排在最后。
+ */
+public class Sorts {
+    public static void main(String[] args) {
+        double[] scores = new double[] {3.5, -0.0, Double.NaN, 0.0, 2.25, -1.0, 8.0, 0.5};
+        Sorts.introSort(scores, 0, scores.length);
+        System.out.print("introSort(double[]): ");
+        System.out.println(Arrays.toString(scores));
+        String[] words = new String[] {"pear", "apple", "fig", "banana", "kiwi"};
+        Sorts.mergeSort(words, 1, words.length, Comparator.comparing(String::length));
+        System.out.print("mergeSort(String[], 1, 5): ");
+        System.out.println(Arrays.toString(words));
+    }
+
+    private static final int INSERTION_THRESHOLD = 16; // 区间元素个数不超过该值时采用插入排序。
+    private static final int NINTHER_THRESHOLD = 128; // 区间元素个数超过该值时采用九数取中法选取基准。
+
+    /* -------------------------------- int --------------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void insertSort(int[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        InsertSort.insertSort(a, from, to - 1);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void heapSort(int[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        HeapSort.heapSort(a, from, to - 1);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void introSort(int[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        QuickSort.introSort(a, from, to - 1);
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void mergeSort(int[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        MergeSort.recursiveMergeSort(a, from, to - 1);
+    }
+
+    /**
+     * 二进制基数排序（稳定），见RadixSort.binaryRadixSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void radixSort(int[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        if (from == 0 && to == a.length) {
+            RadixSort.binaryRadixSort(a, 8);
+            return;
+        }
+        int[] slice = Arrays.copyOfRange(a, from, to);
+        RadixSort.binaryRadixSort(slice, 8);
+        System.arraycopy(slice, 0, a, from, slice.length);
+    }
+
+    /**
+     * 计数排序，自动确定取值范围，见CountingSort.countingSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void countingSort(int[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        CountingSort.countingSort(a, from, to - 1, null);
+    }
+
+    /* -------------------------------- long -------------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void insertSort(long[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        insertSort0(a, from, to - 1);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void heapSort(long[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        heapSort0(a, from, to - 1);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void introSort(long[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        introSort0(a, from, to - 1, depthLimit(to - from));
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void mergeSort(long[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        mergeSort0(a, new long[to - from], from, from, to - 1);
+    }
+
+    /**
+     * 二进制基数排序（稳定），见RadixSort.binaryRadixSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void radixSort(long[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        if (from == 0 && to == a.length) {
+            RadixSort.binaryRadixSort(a, 8);
+            return;
+        }
+        long[] slice = Arrays.copyOfRange(a, from, to);
+        RadixSort.binaryRadixSort(slice, 8);
+        System.arraycopy(slice, 0, a, from, slice.length);
+    }
+
+    private static void insertSort0(long[] a, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            long tmp = a[i];
+            int j = i - 1;
+            while (j >= start && tmp < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = tmp;
+        }
+    }
+
+    private static void heapSort0(long[] a, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(a, start, i, len, a[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            long tmp = a[start + i];
+            a[start + i] = a[start];
+            maxHeapify(a, start, 0, i, tmp);
+        }
+    }
+
+    private static void maxHeapify(long[] a, int start, int i, int len, long x) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && a[start + child] < a[start + child + 1]) {
+                child++;
+            }
+            if (a[start + child] <= x) break;
+            a[start + i] = a[start + child];
+            i = child;
+        }
+        a[start + i] = x;
+    }
+
+    private static void introSort0(long[] a, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort0(a, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(a, start, end);
+            if (pivot - start < end - pivot) {
+                introSort0(a, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort0(a, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        insertSort0(a, start, end);
+    }
+
+    private static int partition(long[] a, int start, int end) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        int m;
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            m = medianOfThree(a, medianOfThree(a, start, start + step, start + 2 * step),
+                    medianOfThree(a, mid - step, mid, mid + step),
+                    medianOfThree(a, end - 2 * step, end - step, end));
+        } else {
+            m = medianOfThree(a, start, mid, end);
+        }
+        long pivot = a[m];
+        a[m] = a[start];
+        a[start] = pivot;
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (a[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < a[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            long tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        a[start] = a[j];
+        a[j] = pivot;
+        return j;
+    }
+
+    private static int medianOfThree(long[] a, int x, int y, int z) {
+        if (a[x] < a[y]) {
+            return a[y] < a[z] ? y : (a[x] < a[z] ? z : x);
+        }
+        return a[x] < a[z] ? x : (a[y] < a[z] ? z : y);
+    }
+
+    /**
+     * 对a[start, end]进行归并排序，tmp[0, ...)对应a[base, ...)。
+     */
+    private static void mergeSort0(long[] a, long[] tmp, int base, int start, int end) {
+        if (end - start + 1 <= INSERTION_THRESHOLD) {
+            insertSort0(a, start, end);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort0(a, tmp, base, start, mid);
+        mergeSort0(a, tmp, base, mid + 1, end);
+        if (a[mid] <= a[mid + 1]) return; // 两个子序列已经有序。
+        // 只需把前一半复制到辅助空间，后一半原地参与合并。
+        System.arraycopy(a, start, tmp, start - base, mid - start + 1);
+        int index1 = start - base;
+        int end1 = mid - base;
+        int index2 = mid + 1;
+        int index = start;
+        while (index1 <= end1 && index2 <= end) {
+            a[index++] = a[index2] < tmp[index1] ? a[index2++] : tmp[index1++];
+        }
+        System.arraycopy(tmp, index1, a, index, end1 - index1 + 1);
+    }
+
+    /* ------------------------------- double ------------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void insertSort(double[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        insertSort0(a, from, end - 1);
+        fixZeros(a, from, end);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void heapSort(double[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        heapSort0(a, from, end - 1);
+        fixZeros(a, from, end);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void introSort(double[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        introSort0(a, from, end - 1, depthLimit(end - from));
+        fixZeros(a, from, end);
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void mergeSort(double[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        mergeSort0(a, new double[end - from], from, from, end - 1);
+        fixZeros(a, from, end);
+    }
+
+    private static void insertSort0(double[] a, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            double tmp = a[i];
+            int j = i - 1;
+            while (j >= start && tmp < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = tmp;
+        }
+    }
+
+    private static void heapSort0(double[] a, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(a, start, i, len, a[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            double tmp = a[start + i];
+            a[start + i] = a[start];
+            maxHeapify(a, start, 0, i, tmp);
+        }
+    }
+
+    private static void maxHeapify(double[] a, int start, int i, int len, double x) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && a[start + child] < a[start + child + 1]) {
+                child++;
+            }
+            if (a[start + child] <= x) break;
+            a[start + i] = a[start + child];
+            i = child;
+        }
+        a[start + i] = x;
+    }
+
+    private static void introSort0(double[] a, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort0(a, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(a, start, end);
+            if (pivot - start < end - pivot) {
+                introSort0(a, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort0(a, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        insertSort0(a, start, end);
+    }
+
+    private static int partition(double[] a, int start, int end) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        int m;
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            m = medianOfThree(a, medianOfThree(a, start, start + step, start + 2 * step),
+                    medianOfThree(a, mid - step, mid, mid + step),
+                    medianOfThree(a, end - 2 * step, end - step, end));
+        } else {
+            m = medianOfThree(a, start, mid, end);
+        }
+        double pivot = a[m];
+        a[m] = a[start];
+        a[start] = pivot;
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (a[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < a[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            double tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        a[start] = a[j];
+        a[j] = pivot;
+        return j;
+    }
+
+    private static int medianOfThree(double[] a, int x, int y, int z) {
+        if (a[x] < a[y]) {
+            return a[y] < a[z] ? y : (a[x] < a[z] ? z : x);
+        }
+        return a[x] < a[z] ? x : (a[y] < a[z] ? z : y);
+    }
+
+    /**
+     * 对a[start, end]进行归并排序，tmp[0, ...)对应a[base, ...)。
+     */
+    private static void mergeSort0(double[] a, double[] tmp, int base, int start, int end) {
+        if (end - start + 1 <= INSERTION_THRESHOLD) {
+            insertSort0(a, start, end);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort0(a, tmp, base, start, mid);
+        mergeSort0(a, tmp, base, mid + 1, end);
+        if (a[mid] <= a[mid + 1]) return; // 两个子序列已经有序。
+        // 只需把前一半复制到辅助空间，后一半原地参与合并。
+        System.arraycopy(a, start, tmp, start - base, mid - start + 1);
+        int index1 = start - base;
+        int end1 = mid - base;
+        int index2 = mid + 1;
+        int index = start;
+        while (index1 <= end1 && index2 <= end) {
+            a[index++] = a[index2] < tmp[index1] ? a[index2++] : tmp[index1++];
+        }
+        System.arraycopy(tmp, index1, a, index, end1 - index1 + 1);
+    }
+
+    /**
+     * 把NaN移到区间末尾，返回非NaN部分的末尾（不包含）。
+     */
+    private static int moveNaNs(double[] a, int from, int to) {
+        int end = to;
+        for (int i = to - 1; i >= from; i--) {
+            if (a[i] != a[i]) {
+                double tmp = a[--end];
+                a[end] = a[i];
+                a[i] = tmp;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * 比较运算不区分-0.0和0.0，排序后把所有-0.0放到0.0之前。
+     */
+    private static void fixZeros(double[] a, int from, int end) {
+        int start = from;
+        int stop = end;
+        while (start < stop) { // 第一个不小于0的位置。
+            int mid = (start + stop) >>> 1;
+            if (a[mid] < 0) {
+                start = mid + 1;
+            } else {
+                stop = mid;
+            }
+        }
+        int negative = 0;
+        int i = start;
+        for (; i < end && a[i] == 0; i++) {
+            if (Double.doubleToRawLongBits(a[i]) < 0) {
+                negative++;
+            }
+        }
+        for (int j = start; j < i; j++) {
+            a[j] = j < start + negative ? -0.0 : 0.0;
+        }
+    }
+
+    /* ------------------------------- float -------------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void insertSort(float[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        insertSort0(a, from, end - 1);
+        fixZeros(a, from, end);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void heapSort(float[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        heapSort0(a, from, end - 1);
+        fixZeros(a, from, end);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void introSort(float[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        introSort0(a, from, end - 1, depthLimit(end - from));
+        fixZeros(a, from, end);
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void mergeSort(float[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int end = moveNaNs(a, from, to);
+        mergeSort0(a, new float[end - from], from, from, end - 1);
+        fixZeros(a, from, end);
+    }
+
+    private static void insertSort0(float[] a, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            float tmp = a[i];
+            int j = i - 1;
+            while (j >= start && tmp < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = tmp;
+        }
+    }
+
+    private static void heapSort0(float[] a, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(a, start, i, len, a[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            float tmp = a[start + i];
+            a[start + i] = a[start];
+            maxHeapify(a, start, 0, i, tmp);
+        }
+    }
+
+    private static void maxHeapify(float[] a, int start, int i, int len, float x) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && a[start + child] < a[start + child + 1]) {
+                child++;
+            }
+            if (a[start + child] <= x) break;
+            a[start + i] = a[start + child];
+            i = child;
+        }
+        a[start + i] = x;
+    }
+
+    private static void introSort0(float[] a, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort0(a, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(a, start, end);
+            if (pivot - start < end - pivot) {
+                introSort0(a, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort0(a, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        insertSort0(a, start, end);
+    }
+
+    private static int partition(float[] a, int start, int end) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        int m;
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            m = medianOfThree(a, medianOfThree(a, start, start + step, start + 2 * step),
+                    medianOfThree(a, mid - step, mid, mid + step),
+                    medianOfThree(a, end - 2 * step, end - step, end));
+        } else {
+            m = medianOfThree(a, start, mid, end);
+        }
+        float pivot = a[m];
+        a[m] = a[start];
+        a[start] = pivot;
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (a[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < a[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            float tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        a[start] = a[j];
+        a[j] = pivot;
+        return j;
+    }
+
+    private static int medianOfThree(float[] a, int x, int y, int z) {
+        if (a[x] < a[y]) {
+            return a[y] < a[z] ? y : (a[x] < a[z] ? z : x);
+        }
+        return a[x] < a[z] ? x : (a[y] < a[z] ? z : y);
+    }
+
+    /**
+     * 对a[start, end]进行归并排序，tmp[0, ...)对应a[base, ...)。
+     */
+    private static void mergeSort0(float[] a, float[] tmp, int base, int start, int end) {
+        if (end - start + 1 <= INSERTION_THRESHOLD) {
+            insertSort0(a, start, end);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort0(a, tmp, base, start, mid);
+        mergeSort0(a, tmp, base, mid + 1, end);
+        if (a[mid] <= a[mid + 1]) return; // 两个子序列已经有序。
+        // 只需把前一半复制到辅助空间，后一半原地参与合并。
+        System.arraycopy(a, start, tmp, start - base, mid - start + 1);
+        int index1 = start - base;
+        int end1 = mid - base;
+        int index2 = mid + 1;
+        int index = start;
+        while (index1 <= end1 && index2 <= end) {
+            a[index++] = a[index2] < tmp[index1] ? a[index2++] : tmp[index1++];
+        }
+        System.arraycopy(tmp, index1, a, index, end1 - index1 + 1);
+    }
+
+    /**
+     * 把NaN移到区间末尾，返回非NaN部分的末尾（不包含）。
+     */
+    private static int moveNaNs(float[] a, int from, int to) {
+        int end = to;
+        for (int i = to - 1; i >= from; i--) {
+            if (a[i] != a[i]) {
+                float tmp = a[--end];
+                a[end] = a[i];
+                a[i] = tmp;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * 比较运算不区分-0.0和0.0，排序后把所有-0.0放到0.0之前。
+     */
+    private static void fixZeros(float[] a, int from, int end) {
+        int start = from;
+        int stop = end;
+        while (start < stop) { // 第一个不小于0的位置。
+            int mid = (start + stop) >>> 1;
+            if (a[mid] < 0) {
+                start = mid + 1;
+            } else {
+                stop = mid;
+            }
+        }
+        int negative = 0;
+        int i = start;
+        for (; i < end && a[i] == 0; i++) {
+            if (Float.floatToRawIntBits(a[i]) < 0) {
+                negative++;
+            }
+        }
+        for (int j = start; j < i; j++) {
+            a[j] = j < start + negative ? -0.0f : 0.0f;
+        }
+    }
+
+    /* ------------------------------- short -------------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void insertSort(short[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        insertSort0(a, from, to - 1);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void heapSort(short[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        heapSort0(a, from, to - 1);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void introSort(short[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        introSort0(a, from, to - 1, depthLimit(to - from));
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void mergeSort(short[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        mergeSort0(a, new short[to - from], from, from, to - 1);
+    }
+
+    /**
+     * 计数排序，取值范围只有65536，计数后直接写回原序列。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void countingSort(short[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int[] count = new int[1 << 16];
+        for (int i = from; i < to; i++) {
+            count[a[i] - Short.MIN_VALUE]++;
+        }
+        int index = from;
+        for (int j = 0; j < count.length; j++) {
+            Arrays.fill(a, index, index + count[j], (short) (j + Short.MIN_VALUE));
+            index += count[j];
+        }
+    }
+
+    private static void insertSort0(short[] a, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            short tmp = a[i];
+            int j = i - 1;
+            while (j >= start && tmp < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = tmp;
+        }
+    }
+
+    private static void heapSort0(short[] a, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(a, start, i, len, a[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            short tmp = a[start + i];
+            a[start + i] = a[start];
+            maxHeapify(a, start, 0, i, tmp);
+        }
+    }
+
+    private static void maxHeapify(short[] a, int start, int i, int len, short x) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && a[start + child] < a[start + child + 1]) {
+                child++;
+            }
+            if (a[start + child] <= x) break;
+            a[start + i] = a[start + child];
+            i = child;
+        }
+        a[start + i] = x;
+    }
+
+    private static void introSort0(short[] a, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort0(a, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(a, start, end);
+            if (pivot - start < end - pivot) {
+                introSort0(a, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort0(a, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        insertSort0(a, start, end);
+    }
+
+    private static int partition(short[] a, int start, int end) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        int m;
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            m = medianOfThree(a, medianOfThree(a, start, start + step, start + 2 * step),
+                    medianOfThree(a, mid - step, mid, mid + step),
+                    medianOfThree(a, end - 2 * step, end - step, end));
+        } else {
+            m = medianOfThree(a, start, mid, end);
+        }
+        short pivot = a[m];
+        a[m] = a[start];
+        a[start] = pivot;
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (a[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < a[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            short tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        a[start] = a[j];
+        a[j] = pivot;
+        return j;
+    }
+
+    private static int medianOfThree(short[] a, int x, int y, int z) {
+        if (a[x] < a[y]) {
+            return a[y] < a[z] ? y : (a[x] < a[z] ? z : x);
+        }
+        return a[x] < a[z] ? x : (a[y] < a[z] ? z : y);
+    }
+
+    /**
+     * 对a[start, end]进行归并排序，tmp[0, ...)对应a[base, ...)。
+     */
+    private static void mergeSort0(short[] a, short[] tmp, int base, int start, int end) {
+        if (end - start + 1 <= INSERTION_THRESHOLD) {
+            insertSort0(a, start, end);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort0(a, tmp, base, start, mid);
+        mergeSort0(a, tmp, base, mid + 1, end);
+        if (a[mid] <= a[mid + 1]) return; // 两个子序列已经有序。
+        // 只需把前一半复制到辅助空间，后一半原地参与合并。
+        System.arraycopy(a, start, tmp, start - base, mid - start + 1);
+        int index1 = start - base;
+        int end1 = mid - base;
+        int index2 = mid + 1;
+        int index = start;
+        while (index1 <= end1 && index2 <= end) {
+            a[index++] = a[index2] < tmp[index1] ? a[index2++] : tmp[index1++];
+        }
+        System.arraycopy(tmp, index1, a, index, end1 - index1 + 1);
+    }
+
+    /* -------------------------------- char -------------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void insertSort(char[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        insertSort0(a, from, to - 1);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void heapSort(char[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        heapSort0(a, from, to - 1);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void introSort(char[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        introSort0(a, from, to - 1, depthLimit(to - from));
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void mergeSort(char[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        mergeSort0(a, new char[to - from], from, from, to - 1);
+    }
+
+    /**
+     * 计数排序，取值范围只有65536，计数后直接写回原序列。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     */
+    public static void countingSort(char[] a, int from, int to) {
+        rangeCheck(a.length, from, to);
+        int[] count = new int[1 << 16];
+        for (int i = from; i < to; i++) {
+            count[a[i]]++;
+        }
+        int index = from;
+        for (int j = 0; j < count.length; j++) {
+            Arrays.fill(a, index, index + count[j], (char) j);
+            index += count[j];
+        }
+    }
+
+    private static void insertSort0(char[] a, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            char tmp = a[i];
+            int j = i - 1;
+            while (j >= start && tmp < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = tmp;
+        }
+    }
+
+    private static void heapSort0(char[] a, int start, int end) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(a, start, i, len, a[start + i]);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            char tmp = a[start + i];
+            a[start + i] = a[start];
+            maxHeapify(a, start, 0, i, tmp);
+        }
+    }
+
+    private static void maxHeapify(char[] a, int start, int i, int len, char x) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && a[start + child] < a[start + child + 1]) {
+                child++;
+            }
+            if (a[start + child] <= x) break;
+            a[start + i] = a[start + child];
+            i = child;
+        }
+        a[start + i] = x;
+    }
+
+    private static void introSort0(char[] a, int start, int end, int depth_limit) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort0(a, start, end);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(a, start, end);
+            if (pivot - start < end - pivot) {
+                introSort0(a, start, pivot - 1, depth_limit);
+                start = pivot + 1;
+            } else {
+                introSort0(a, pivot + 1, end, depth_limit);
+                end = pivot - 1;
+            }
+        }
+        insertSort0(a, start, end);
+    }
+
+    private static int partition(char[] a, int start, int end) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        int m;
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            m = medianOfThree(a, medianOfThree(a, start, start + step, start + 2 * step),
+                    medianOfThree(a, mid - step, mid, mid + step),
+                    medianOfThree(a, end - 2 * step, end - step, end));
+        } else {
+            m = medianOfThree(a, start, mid, end);
+        }
+        char pivot = a[m];
+        a[m] = a[start];
+        a[start] = pivot;
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (a[++i] < pivot) {
+                if (i == end) break;
+            }
+            while (pivot < a[--j]) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            char tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        a[start] = a[j];
+        a[j] = pivot;
+        return j;
+    }
+
+    private static int medianOfThree(char[] a, int x, int y, int z) {
+        if (a[x] < a[y]) {
+            return a[y] < a[z] ? y : (a[x] < a[z] ? z : x);
+        }
+        return a[x] < a[z] ? x : (a[y] < a[z] ? z : y);
+    }
+
+    /**
+     * 对a[start, end]进行归并排序，tmp[0, ...)对应a[base, ...)。
+     */
+    private static void mergeSort0(char[] a, char[] tmp, int base, int start, int end) {
+        if (end - start + 1 <= INSERTION_THRESHOLD) {
+            insertSort0(a, start, end);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort0(a, tmp, base, start, mid);
+        mergeSort0(a, tmp, base, mid + 1, end);
+        if (a[mid] <= a[mid + 1]) return; // 两个子序列已经有序。
+        // 只需把前一半复制到辅助空间，后一半原地参与合并。
+        System.arraycopy(a, start, tmp, start - base, mid - start + 1);
+        int index1 = start - base;
+        int end1 = mid - base;
+        int index2 = mid + 1;
+        int index = start;
+        while (index1 <= end1 && index2 <= end) {
+            a[index++] = a[index2] < tmp[index1] ? a[index2++] : tmp[index1++];
+        }
+        System.arraycopy(tmp, index1, a, index, end1 - index1 + 1);
+    }
+
+    /* --------------------------- T + Comparator --------------------------- */
+
+    /**
+     * 插入排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     * @param c 比较器
+     */
+    public static <T> void insertSort(T[] a, int from, int to, Comparator<? super T> c) {
+        rangeCheck(a.length, from, to);
+        insertSort0(a, from, to - 1, c);
+    }
+
+    /**
+     * 堆排序（不稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     * @param c 比较器
+     */
+    public static <T> void heapSort(T[] a, int from, int to, Comparator<? super T> c) {
+        rangeCheck(a.length, from, to);
+        heapSort0(a, from, to - 1, c);
+    }
+
+    /**
+     * 内省排序（不稳定），见QuickSort.introSort。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     * @param c 比较器
+     */
+    public static <T> void introSort(T[] a, int from, int to, Comparator<? super T> c) {
+        rangeCheck(a.length, from, to);
+        introSort0(a, from, to - 1, depthLimit(to - from), c);
+    }
+
+    /**
+     * 归并排序（稳定）。
+     * @param a 待排序序列
+     * @param from 区间起始索引（包含）
+     * @param to 区间末尾索引（不包含）
+     * @param c 比较器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void mergeSort(T[] a, int from, int to, Comparator<? super T> c) {
+        rangeCheck(a.length, from, to);
+        mergeSort0(a, (T[]) new Object[to - from], from, from, to - 1, c);
+    }
+
+    private static <T> void insertSort0(T[] a, int start, int end, Comparator<? super T> c) {
+        for (int i = start + 1; i <= end; i++) {
+            T tmp = a[i];
+            int j = i - 1;
+            while (j >= start && c.compare(tmp, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = tmp;
+        }
+    }
+
+    private static <T> void heapSort0(T[] a, int start, int end, Comparator<? super T> c) {
+        int len = end - start + 1;
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            maxHeapify(a, start, i, len, a[start + i], c);
+        }
+        for (int i = len - 1; i > 0; i--) {
+            T tmp = a[start + i];
+            a[start + i] = a[start];
+            maxHeapify(a, start, 0, i, tmp, c);
+        }
+    }
+
+    private static <T> void maxHeapify(T[] a, int start, int i, int len, T x, Comparator<? super T> c) {
+        int child;
+        while ((child = i * 2 + 1) < len) {
+            if (child + 1 < len && c.compare(a[start + child], a[start + child + 1]) < 0) {
+                child++;
+            }
+            if (c.compare(a[start + child], x) <= 0) break;
+            a[start + i] = a[start + child];
+            i = child;
+        }
+        a[start + i] = x;
+    }
+
+    private static <T> void introSort0(T[] a, int start, int end, int depth_limit, Comparator<? super T> c) {
+        while (end - start + 1 > INSERTION_THRESHOLD) {
+            if (depth_limit == 0) {
+                heapSort0(a, start, end, c);
+                return;
+            }
+            depth_limit--;
+            int pivot = partition(a, start, end, c);
+            if (pivot - start < end - pivot) {
+                introSort0(a, start, pivot - 1, depth_limit, c);
+                start = pivot + 1;
+            } else {
+                introSort0(a, pivot + 1, end, depth_limit, c);
+                end = pivot - 1;
+            }
+        }
+        insertSort0(a, start, end, c);
+    }
+
+    private static <T> int partition(T[] a, int start, int end, Comparator<? super T> c) {
+        int len = end - start + 1;
+        int mid = start + (len >>> 1);
+        int m;
+        if (len > NINTHER_THRESHOLD) {
+            int step = len >>> 3;
+            m = medianOfThree(a, medianOfThree(a, start, start + step, start + 2 * step, c),
+                    medianOfThree(a, mid - step, mid, mid + step, c),
+                    medianOfThree(a, end - 2 * step, end - step, end, c), c);
+        } else {
+            m = medianOfThree(a, start, mid, end, c);
+        }
+        T pivot = a[m];
+        a[m] = a[start];
+        a[start] = pivot;
+        int i = start;
+        int j = end + 1;
+        while (true) {
+            while (c.compare(a[++i], pivot) < 0) {
+                if (i == end) break;
+            }
+            while (c.compare(pivot, a[--j]) < 0) {
+                if (j == start) break;
+            }
+            if (i >= j) break;
+            T tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        a[start] = a[j];
+        a[j] = pivot;
+        return j;
+    }
+
+    private static <T> int medianOfThree(T[] a, int x, int y, int z, Comparator<? super T> c) {
+        if (c.compare(a[x], a[y]) < 0) {
+            return c.compare(a[y], a[z]) < 0 ? y : (c.compare(a[x], a[z]) < 0 ? z : x);
+        }
+        return c.compare(a[x], a[z]) < 0 ? x : (c.compare(a[y], a[z]) < 0 ? z : y);
+    }
+
+    /**
+     * 对a[start, end]进行归并排序，tmp[0, ...)对应a[base, ...)。
+     */
+    private static <T> void mergeSort0(T[] a, T[] tmp, int base, int start, int end, Comparator<? super T> c) {
+        if (end - start + 1 <= INSERTION_THRESHOLD) {
+            insertSort0(a, start, end, c);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort0(a, tmp, base, start, mid, c);
+        mergeSort0(a, tmp, base, mid + 1, end, c);
+        if (c.compare(a[mid], a[mid + 1]) <= 0) return; // 两个子序列已经有序。
+        // 只需把前一半复制到辅助空间，后一半原地参与合并。
+        System.arraycopy(a, start, tmp, start - base, mid - start + 1);
+        int index1 = start - base;
+        int end1 = mid - base;
+        int index2 = mid + 1;
+        int index = start;
+        while (index1 <= end1 && index2 <= end) {
+            a[index++] = c.compare(a[index2], tmp[index1]) < 0 ? a[index2++] : tmp[index1++];
+        }
+        System.arraycopy(tmp, index1, a, index, end1 - index1 + 1);
+    }
+
+    /* ------------------------------- common ------------------------------- */
+
+    private static int depthLimit(int len) {
+        return len < 2 ? 0 : 2 * (31 - Integer.numberOfLeadingZeros(len));
+    }
+
+    private static void rangeCheck(int length, int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("from(" + from + ") > to(" + to + ")");
+        }
+        if (from < 0) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > length) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+    }
+}
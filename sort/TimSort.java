@@ -0,0 +1,421 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+
+/**
+ * 自适应归并排序（TimSort）
+ * 原理：实际数据中往往已经存在很多有序的片段（run）。从左到右扫描序列，找出每一个自然的升序片段，严格降序的
+ *      片段直接翻转为升序；片段过短时，用二分插入排序扩展到minRun个元素。所有片段依次压入栈中，并保持栈中
+ *      片段长度满足
+ *          len[i - 2] > len[i - 1] + len[i]，len[i - 1] > len[i]
+ *      不满足时合并相邻的两个片段，使合并总是在长度相近的片段之间进行。
+ *      合并时，如果某个片段连续多次"胜出"，说明数据呈块状分布，此时改用指数查找（galloping）一次性找到并复制
+ *      一整块，而不是逐个比较。
+ * 时间复杂度：最优O(n)，序列本来就是有序或逆序的；最坏O(nlogn)。
+ * 空间复杂度：O(n)，最坏需要n/2的辅助空间。
+ * 稳定。
+ */
+public class TimSort {
+    public static void main(String[] args) {
+        int[] nums = new int[] {3, 5, 3, 0, 8, 11, 6, 12,  6, 1, 5, 8, 6, 2, 4, 9, 4, 7, 0, 1, 8,
+                9, 7, 3, 1, 2, 57, 9, 200, 130, 7, 4, 0, 2, 6, 10};
+        timSort(nums);
+        System.out.print("timSort: ");
+        System.out.println(Arrays.toString(nums));
+    }
+
+    private static final int MIN_MERGE = 32; // 元素个数小于该值时直接进行二分插入排序。
+    private static final int MIN_GALLOP = 7; // 连续胜出该次数后进入galloping模式。
+
+    private final int[] nums;
+    private int[] tmp; // 合并所需辅助空间，按需扩容。
+    private int minGallop = MIN_GALLOP; // 进入galloping模式的阈值，随数据自适应调整。
+    private int stackSize = 0; // 栈中片段的个数。
+    private final int[] runBase; // 片段的起始位置。
+    private final int[] runLen; // 片段的长度。
+
+    private TimSort(int[] nums, int len) {
+        this.nums = nums;
+        tmp = new int[len < 512 ? len >>> 1 : 256];
+        // 由栈的不变式可知，片段长度至少按斐波那契数列增长，栈的深度不会超过以下值。
+        int stack_len = len < 120 ? 5 : len < 1542 ? 10 : len < 119151 ? 24 : 49;
+        runBase = new int[stack_len];
+        runLen = new int[stack_len];
+    }
+
+    /**
+     * TimSort
+     * @param nums 待排序序列
+     */
+    public static void timSort(int[] nums) {
+        timSort(nums, 0, nums.length - 1);
+    }
+
+    /**
+     * 对序列的一个区间进行TimSort。
+     * @param nums 待排序序列
+     * @param start 区间起始索引
+     * @param end 区间末尾索引
+     */
+    public static void timSort(int[] nums, int start, int end) {
+        int lo = start;
+        int remain = end - start + 1;
+        if (remain < 2) return;
+        if (remain < MIN_MERGE) { // 元素较少时，不需要合并。
+            int run_len = countRunAndMakeAscending(nums, lo, end + 1);
+            InsertSort.binaryInsertSort(nums, lo, end, lo + run_len);
+            return;
+        }
+        TimSort ts = new TimSort(nums, remain);
+        int min_run = minRunLength(remain);
+        do {
+            int run_len = countRunAndMakeAscending(nums, lo, end + 1);
+            if (run_len < min_run) { // 片段过短，用二分插入排序扩展到min_run。
+                int force = Math.min(remain, min_run);
+                InsertSort.binaryInsertSort(nums, lo, lo + force - 1, lo + run_len);
+                run_len = force;
+            }
+            ts.pushRun(lo, run_len);
+            ts.mergeCollapse();
+            lo += run_len;
+            remain -= run_len;
+        } while (remain != 0);
+        ts.mergeForceCollapse();
+    }
+
+    /**
+     * 找出从start开始的自然片段，严格降序的片段翻转为升序（严格降序才能保证翻转后依然稳定）。
+     * @return 片段的长度
+     */
+    private static int countRunAndMakeAscending(int[] nums, int start, int end) {
+        int run_end = start + 1;
+        if (run_end == end) return 1;
+        if (nums[run_end++] < nums[start]) {
+            while (run_end < end && nums[run_end] < nums[run_end - 1]) run_end++;
+            for (int i = start, j = run_end - 1; i < j; i++, j--) {
+                int tmp = nums[i];
+                nums[i] = nums[j];
+                nums[j] = tmp;
+            }
+        } else {
+            while (run_end < end && nums[run_end] >= nums[run_end - 1]) run_end++;
+        }
+        return run_end - start;
+    }
+
+    /**
+     * 片段的最小长度，取值在[MIN_MERGE/2, MIN_MERGE]之间，使n/minRun恰好为或略小于2的幂，合并时更均衡。
+     */
+    private static int minRunLength(int n) {
+        int r = 0; // 移出的位中是否有1。
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private void pushRun(int base, int len) {
+        runBase[stackSize] = base;
+        runLen[stackSize] = len;
+        stackSize++;
+    }
+
+    /**
+     * 检查栈顶的片段是否满足不变式，不满足时进行合并，直到满足为止。
+     */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                    || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+            } else if (runLen[n] > runLen[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中所有的片段。
+     */
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * 合并栈中第i和第i+1个片段。
+     */
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int len1 = runLen[i];
+        int base2 = runBase[i + 1];
+        int len2 = runLen[i + 1];
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        stackSize--;
+        // 第一个片段中不大于nums[base2]的元素已经归位。
+        int k = gallopRight(nums[base2], nums, base1, len1, 0);
+        base1 += k;
+        len1 -= k;
+        if (len1 == 0) return;
+        // 第二个片段中不小于第一个片段末尾元素的元素已经归位。
+        len2 = gallopLeft(nums[base1 + len1 - 1], nums, base2, len2, len2 - 1);
+        if (len2 == 0) return;
+        if (len1 <= len2) {
+            mergeLo(base1, len1, base2, len2);
+        } else {
+            mergeHi(base1, len1, base2, len2);
+        }
+    }
+
+    /**
+     * 从hint开始指数查找，再二分查找，返回key在有序片段nums[base, base + len)中最左的插入位置k，即
+     * nums[base + k - 1] < key <= nums[base + k]。
+     */
+    private static int gallopLeft(int key, int[] nums, int base, int len, int hint) {
+        int last_ofs = 0;
+        int ofs = 1;
+        if (key > nums[base + hint]) { // 向右查找。
+            int max_ofs = len - hint;
+            while (ofs < max_ofs && key > nums[base + hint + ofs]) {
+                last_ofs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = max_ofs; // 溢出。
+            }
+            ofs = Math.min(ofs, max_ofs);
+            last_ofs += hint;
+            ofs += hint;
+        } else { // 向左查找。
+            int max_ofs = hint + 1;
+            while (ofs < max_ofs && key <= nums[base + hint - ofs]) {
+                last_ofs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = max_ofs;
+            }
+            ofs = Math.min(ofs, max_ofs);
+            int tmp = last_ofs;
+            last_ofs = hint - ofs;
+            ofs = hint - tmp;
+        }
+        // 此时nums[base + last_ofs] < key <= nums[base + ofs]。
+        last_ofs++;
+        while (last_ofs < ofs) {
+            int mid = last_ofs + ((ofs - last_ofs) >>> 1);
+            if (key > nums[base + mid]) {
+                last_ofs = mid + 1;
+            } else {
+                ofs = mid;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * 与gallopLeft类似，返回key最右的插入位置k，即nums[base + k - 1] <= key < nums[base + k]。
+     */
+    private static int gallopRight(int key, int[] nums, int base, int len, int hint) {
+        int last_ofs = 0;
+        int ofs = 1;
+        if (key < nums[base + hint]) { // 向左查找。
+            int max_ofs = hint + 1;
+            while (ofs < max_ofs && key < nums[base + hint - ofs]) {
+                last_ofs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = max_ofs;
+            }
+            ofs = Math.min(ofs, max_ofs);
+            int tmp = last_ofs;
+            last_ofs = hint - ofs;
+            ofs = hint - tmp;
+        } else { // 向右查找。
+            int max_ofs = len - hint;
+            while (ofs < max_ofs && key >= nums[base + hint + ofs]) {
+                last_ofs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = max_ofs;
+            }
+            ofs = Math.min(ofs, max_ofs);
+            last_ofs += hint;
+            ofs += hint;
+        }
+        last_ofs++;
+        while (last_ofs < ofs) {
+            int mid = last_ofs + ((ofs - last_ofs) >>> 1);
+            if (key < nums[base + mid]) {
+                ofs = mid;
+            } else {
+                last_ofs = mid + 1;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * 从左到右合并两个相邻的片段，第一个片段较短，只需把它复制到辅助空间。
+     * 调用前已保证：第一个片段的首元素大于第二个片段的首元素，第一个片段的末元素大于第二个片段的所有元素。
+     */
+    private void mergeLo(int base1, int len1, int base2, int len2) {
+        int[] nums = this.nums;
+        int[] tmp = ensureCapacity(len1);
+        System.arraycopy(nums, base1, tmp, 0, len1);
+        int cursor1 = 0; // tmp中的位置。
+        int cursor2 = base2; // nums中的位置。
+        int dest = base1;
+        nums[dest++] = nums[cursor2++];
+        if (--len2 == 0) {
+            System.arraycopy(tmp, cursor1, nums, dest, len1);
+            return;
+        }
+        if (len1 == 1) {
+            System.arraycopy(nums, cursor2, nums, dest, len2);
+            nums[dest + len2] = tmp[cursor1];
+            return;
+        }
+        int min_gallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0; // 第一个片段连续胜出的次数。
+            int count2 = 0; // 第二个片段连续胜出的次数。
+            do { // 逐个比较。
+                if (nums[cursor2] < tmp[cursor1]) {
+                    nums[dest++] = nums[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 0) break outer;
+                } else {
+                    nums[dest++] = tmp[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 1) break outer;
+                }
+            } while ((count1 | count2) < min_gallop);
+            do { // galloping模式，直到两个片段都不再成块胜出。
+                count1 = gallopRight(nums[cursor2], tmp, cursor1, len1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(tmp, cursor1, nums, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    len1 -= count1;
+                    if (len1 <= 1) break outer;
+                }
+                nums[dest++] = nums[cursor2++];
+                if (--len2 == 0) break outer;
+                count2 = gallopLeft(tmp[cursor1], nums, cursor2, len2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(nums, cursor2, nums, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    len2 -= count2;
+                    if (len2 == 0) break outer;
+                }
+                nums[dest++] = tmp[cursor1++];
+                if (--len1 == 1) break outer;
+                min_gallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            min_gallop = Math.max(min_gallop, 0) + 2; // 退出galloping模式的惩罚。
+        }
+        this.minGallop = Math.max(min_gallop, 1);
+        if (len1 == 1) {
+            System.arraycopy(nums, cursor2, nums, dest, len2);
+            nums[dest + len2] = tmp[cursor1];
+        } else {
+            System.arraycopy(tmp, cursor1, nums, dest, len1);
+        }
+    }
+
+    /**
+     * 从右到左合并两个相邻的片段，第二个片段较短，只需把它复制到辅助空间。
+     */
+    private void mergeHi(int base1, int len1, int base2, int len2) {
+        int[] nums = this.nums;
+        int[] tmp = ensureCapacity(len2);
+        System.arraycopy(nums, base2, tmp, 0, len2);
+        int cursor1 = base1 + len1 - 1; // nums中的位置。
+        int cursor2 = len2 - 1; // tmp中的位置。
+        int dest = base2 + len2 - 1;
+        nums[dest--] = nums[cursor1--];
+        if (--len1 == 0) {
+            System.arraycopy(tmp, 0, nums, dest - (len2 - 1), len2);
+            return;
+        }
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(nums, cursor1 + 1, nums, dest + 1, len1);
+            nums[dest] = tmp[cursor2];
+            return;
+        }
+        int min_gallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+            do {
+                if (tmp[cursor2] < nums[cursor1]) {
+                    nums[dest--] = nums[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 0) break outer;
+                } else {
+                    nums[dest--] = tmp[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 1) break outer;
+                }
+            } while ((count1 | count2) < min_gallop);
+            do {
+                count1 = len1 - gallopRight(tmp[cursor2], nums, base1, len1, len1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    len1 -= count1;
+                    System.arraycopy(nums, cursor1 + 1, nums, dest + 1, count1);
+                    if (len1 == 0) break outer;
+                }
+                nums[dest--] = tmp[cursor2--];
+                if (--len2 == 1) break outer;
+                count2 = len2 - gallopLeft(nums[cursor1], tmp, 0, len2, len2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    len2 -= count2;
+                    System.arraycopy(tmp, cursor2 + 1, nums, dest + 1, count2);
+                    if (len2 <= 1) break outer;
+                }
+                nums[dest--] = nums[cursor1--];
+                if (--len1 == 0) break outer;
+                min_gallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            min_gallop = Math.max(min_gallop, 0) + 2;
+        }
+        this.minGallop = Math.max(min_gallop, 1);
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(nums, cursor1 + 1, nums, dest + 1, len1);
+            nums[dest] = tmp[cursor2];
+        } else {
+            System.arraycopy(tmp, 0, nums, dest - (len2 - 1), len2);
+        }
+    }
+
+    private int[] ensureCapacity(int min_capacity) {
+        if (tmp.length < min_capacity) {
+            tmp = new int[Math.max(min_capacity, Math.min(tmp.length * 2, nums.length >>> 1))];
+        }
+        return tmp;
+    }
+}
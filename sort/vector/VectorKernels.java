@@ -0,0 +1,242 @@
+package cn.ning.algorithm.sort;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于Vector API（jdk.incubator.vector）的排序内核，只由SimdSort在运行时按需加载。
+ * 编译和运行都需要加上--add-modules jdk.incubator.vector。本类单独放在sort/vector目录下，
+ * javac sort/*.java不需要该参数，此时SimdSort使用标量实现。
+ *
+ * 1. 排序网络：一个向量（8个int）内的双调排序网络，每一步用一次rearrange取得对端元素，再用min、max和blend
+ *    完成所有比较交换；两个有序向量再通过双调合并得到16个有序元素。区间元素个数不超过16时直接用排序网络。
+ * 2. 向量化划分：一次比较得到8个元素与基准的大小关系（掩码），按掩码查表得到一个shuffle，把小于基准的元素
+ *    紧凑地排到向量前部，整个向量写入左缓冲区，左缓冲区的写指针只前进小于基准的元素个数；大于等于基准的
+ *    元素同理写入右缓冲区。JDK 17的Vector API没有compress操作，因此用查表的方式实现。
+ */
+final class VectorKernels implements SimdSort.Kernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+    private static final int LANES = SPECIES.length(); // 8
+    private static final int NETWORK_SIZE = 2 * LANES; // 排序网络能处理的最大元素个数。
+
+    /* 双调排序网络每一步的对端索引（lane i与i ^ j比较）。 */
+    private static final VectorShuffle<Integer> PARTNER_1 = partner(1);
+    private static final VectorShuffle<Integer> PARTNER_2 = partner(2);
+    private static final VectorShuffle<Integer> PARTNER_4 = partner(4);
+    /* 双调排序网络每一步取较大值的lane：MAX_k_j表示长度为k的子序列、间距为j的一步。 */
+    private static final VectorMask<Integer> MAX_2_1 = maxLanes(2, 1);
+    private static final VectorMask<Integer> MAX_4_2 = maxLanes(4, 2);
+    private static final VectorMask<Integer> MAX_4_1 = maxLanes(4, 1);
+    private static final VectorMask<Integer> MAX_8_4 = maxLanes(8, 4);
+    private static final VectorMask<Integer> MAX_8_2 = maxLanes(8, 2);
+    private static final VectorMask<Integer> MAX_8_1 = maxLanes(8, 1);
+    private static final VectorShuffle<Integer> REVERSE;
+    /* lane i的值为1 << i。 */
+    private static final IntVector LANE_BITS = IntVector.broadcast(SPECIES, 1)
+            .lanewise(VectorOperators.LSHL, IntVector.zero(SPECIES).addIndex(1));
+    private static final int FULL_MASK = (1 << LANES) - 1;
+    /* PACK[m]把掩码m中被选中的lane按原顺序排到向量前部。 */
+    private static final VectorShuffle<Integer>[] PACK;
+
+    static {
+        int[] reverse = new int[LANES];
+        for (int i = 0; i < LANES; i++) {
+            reverse[i] = LANES - 1 - i;
+        }
+        REVERSE = VectorShuffle.fromArray(SPECIES, reverse, 0);
+        @SuppressWarnings("unchecked")
+        VectorShuffle<Integer>[] pack = (VectorShuffle<Integer>[]) new VectorShuffle<?>[1 << LANES];
+        for (int m = 0; m < 1 << LANES; m++) {
+            int[] index = new int[LANES];
+            int count = 0;
+            for (int i = 0; i < LANES; i++) {
+                if ((m & (1 << i)) != 0) {
+                    index[count++] = i;
+                }
+            }
+            for (int i = 0; i < LANES; i++) {
+                if ((m & (1 << i)) == 0) {
+                    index[count++] = i;
+                }
+            }
+            pack[m] = VectorShuffle.fromArray(SPECIES, index, 0);
+        }
+        PACK = pack;
+    }
+
+    private static VectorShuffle<Integer> partner(int j) {
+        int[] index = new int[LANES];
+        for (int i = 0; i < LANES; i++) {
+            index[i] = i ^ j;
+        }
+        return VectorShuffle.fromArray(SPECIES, index, 0);
+    }
+
+    /**
+     * 双调排序中长度为k的子序列按升、降序交替排列，lane i与i ^ j比较，索引较大的一方在升序子序列中取较大值。
+     */
+    private static VectorMask<Integer> maxLanes(int k, int j) {
+        boolean[] bits = new boolean[LANES];
+        for (int i = 0; i < LANES; i++) {
+            boolean ascending = (i & k) == 0;
+            boolean upper = (i & j) != 0;
+            bits[i] = ascending == upper;
+        }
+        return VectorMask.fromArray(SPECIES, bits, 0);
+    }
+
+    @Override
+    public void sort(int[] nums, int from, int to) {
+        int n = to - from;
+        if (n < 2) return;
+        if (n <= NETWORK_SIZE) {
+            networkSort(nums, from, n, new int[NETWORK_SIZE]);
+            return;
+        }
+        int[] left = new int[n + LANES];
+        int[] right = new int[n + LANES];
+        quickSort(nums, from, to, left, right);
+    }
+
+    /**
+     * 非递归的快速排序：较大的子区间入栈，较小的子区间继续划分，栈深度不超过log2(n)。
+     * 向量只在partition和sort16内部使用，不作为参数或返回值传递。
+     */
+    private static void quickSort(int[] nums, int from, int to, int[] left, int[] right) {
+        int[] stack = new int[3 * 32];
+        int top = 0;
+        int depth_limit = 2 * (31 - Integer.numberOfLeadingZeros(to - from));
+        while (true) {
+            while (to - from > NETWORK_SIZE) {
+                if (depth_limit-- == 0) {
+                    HeapSort.heapSort(nums, from, to - 1);
+                    from = to;
+                    break;
+                }
+                int pivot = nums[medianOfThree(nums, from, (from + to) >>> 1, to - 1)];
+                int mid = partition(nums, from, to, pivot, false, left, right);
+                if (mid == from) { // 基准是最小值：把等于基准的元素放到左边，左边无需再排序。
+                    from = partition(nums, from, to, pivot, true, left, right);
+                    continue;
+                }
+                if (mid - from < to - mid) {
+                    stack[top++] = mid;
+                    stack[top++] = to;
+                    to = mid;
+                } else {
+                    stack[top++] = from;
+                    stack[top++] = mid;
+                    from = mid;
+                }
+                stack[top++] = depth_limit;
+            }
+            networkSort(nums, from, to - from, left);
+            if (top == 0) return;
+            depth_limit = stack[--top];
+            to = stack[--top];
+            from = stack[--top];
+        }
+    }
+
+    /**
+     * 向量化划分：小于（orEqual为true时小于等于）基准的元素放到左边。
+     * @return 右边第一个元素的位置
+     */
+    private static int partition(int[] nums, int from, int to, int pivot, boolean orEqual,
+                                 int[] left, int[] right) {
+        if (orEqual) { // num <= pivot等价于num < pivot + 1。
+            if (pivot == Integer.MAX_VALUE) return to;
+            pivot++;
+        }
+        int l = 0;
+        int r = 0;
+        int i = from;
+        IntVector pivots = IntVector.broadcast(SPECIES, pivot);
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += LANES) {
+            IntVector v = IntVector.fromArray(SPECIES, nums, i);
+            VectorMask<Integer> less = v.compare(VectorOperators.LT, pivots);
+            // JDK 17中VectorMask.toLong()没有内联为向量指令，用各lane的位权求和得到掩码对应的整数。
+            int m = LANE_BITS.blend(0, less.not()).reduceLanes(VectorOperators.ADD);
+            v.rearrange(PACK[m]).intoArray(left, l);
+            v.rearrange(PACK[m ^ FULL_MASK]).intoArray(right, r);
+            int count = Integer.bitCount(m);
+            l += count;
+            r += LANES - count;
+        }
+        for (; i < to; i++) { // 剩余不足一个向量的元素。
+            int num = nums[i];
+            if (num < pivot) {
+                left[l++] = num;
+            } else {
+                right[r++] = num;
+            }
+        }
+        System.arraycopy(left, 0, nums, from, l);
+        System.arraycopy(right, 0, nums, from + l, r);
+        return from + l;
+    }
+
+    /**
+     * 用排序网络对nums[from, from + n)排序，n不超过NETWORK_SIZE。
+     * 不足NETWORK_SIZE时先复制到buf并用Integer.MAX_VALUE填充，避免JDK 17中开销很大的带掩码读写。
+     */
+    private static void networkSort(int[] nums, int from, int n, int[] buf) {
+        if (n < 2) return;
+        if (n == NETWORK_SIZE) {
+            sort16(nums, from);
+            return;
+        }
+        System.arraycopy(nums, from, buf, 0, n);
+        Arrays.fill(buf, n, NETWORK_SIZE, Integer.MAX_VALUE);
+        sort16(buf, 0);
+        System.arraycopy(buf, 0, nums, from, n);
+    }
+
+    /**
+     * 对nums[from, from + 16)排序。
+     * 网络的每一步都展开写在这一个方法里，shuffle和掩码都是常量：向量一旦作为参数或返回值跨越没有内联的
+     * 方法调用就会被装箱，C2不会内联已经编译成大方法的被调用者，所以这里不再拆分出辅助方法。
+     */
+    private static void sort16(int[] nums, int from) {
+        IntVector a = IntVector.fromArray(SPECIES, nums, from);
+        IntVector b = IntVector.fromArray(SPECIES, nums, from + LANES);
+        IntVector t;
+        // 两个向量各自做双调排序。
+        t = a.rearrange(PARTNER_1); a = a.min(t).blend(a.max(t), MAX_2_1);
+        t = b.rearrange(PARTNER_1); b = b.min(t).blend(b.max(t), MAX_2_1);
+        t = a.rearrange(PARTNER_2); a = a.min(t).blend(a.max(t), MAX_4_2);
+        t = b.rearrange(PARTNER_2); b = b.min(t).blend(b.max(t), MAX_4_2);
+        t = a.rearrange(PARTNER_1); a = a.min(t).blend(a.max(t), MAX_4_1);
+        t = b.rearrange(PARTNER_1); b = b.min(t).blend(b.max(t), MAX_4_1);
+        t = a.rearrange(PARTNER_4); a = a.min(t).blend(a.max(t), MAX_8_4);
+        t = b.rearrange(PARTNER_4); b = b.min(t).blend(b.max(t), MAX_8_4);
+        t = a.rearrange(PARTNER_2); a = a.min(t).blend(a.max(t), MAX_8_2);
+        t = b.rearrange(PARTNER_2); b = b.min(t).blend(b.max(t), MAX_8_2);
+        t = a.rearrange(PARTNER_1); a = a.min(t).blend(a.max(t), MAX_8_1);
+        t = b.rearrange(PARTNER_1); b = b.min(t).blend(b.max(t), MAX_8_1);
+        // 双调合并：第二个向量翻转后与第一个向量逐lane比较，较小的一半和较大的一半各自再做一次双调合并。
+        t = b.rearrange(REVERSE);
+        b = a.max(t);
+        a = a.min(t);
+        t = a.rearrange(PARTNER_4); a = a.min(t).blend(a.max(t), MAX_8_4);
+        t = b.rearrange(PARTNER_4); b = b.min(t).blend(b.max(t), MAX_8_4);
+        t = a.rearrange(PARTNER_2); a = a.min(t).blend(a.max(t), MAX_8_2);
+        t = b.rearrange(PARTNER_2); b = b.min(t).blend(b.max(t), MAX_8_2);
+        t = a.rearrange(PARTNER_1); a = a.min(t).blend(a.max(t), MAX_8_1);
+        t = b.rearrange(PARTNER_1); b = b.min(t).blend(b.max(t), MAX_8_1);
+        a.intoArray(nums, from);
+        b.intoArray(nums, from + LANES);
+    }
+
+    private static int medianOfThree(int[] nums, int a, int b, int c) {
+        if (nums[a] < nums[b]) {
+            return nums[b] < nums[c] ? b : (nums[a] < nums[c] ? c : a);
+        }
+        return nums[a] < nums[c] ? a : (nums[b] < nums[c] ? c : b);
+    }
+}
@@ -59,6 +59,7 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
             parent.left = cur;
             cur.parent = parent;
         }
+        addSize(parent, 1); // 更新插入路径上各结点的子树结点数。
         insertBalance(cur); // 对新的树进行平衡化操作。
         return true;
     }
@@ -116,6 +117,7 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
             delete_node.right.parent = delete_node.parent;
             parent = delete_node.parent;
         }
+        addSize(parent, -1); // parent是实际被移除结点的父结点。
         deleteBalance(parent);
         return true;
     }
@@ -230,6 +232,90 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
         return node.height;
     }
 
+    /**
+     * 获取以结点为根的子树的结点数。
+     */
+    public int getSize(Node<T> node) {
+        if (node == null) {
+            return 0;
+        }
+        return node.size;
+    }
+
+    /**
+     * 树中元素的个数。
+     */
+    public int size() {
+        return this.getSize(this.getRoot());
+    }
+
+    /**
+     * 将node及其所有祖先结点的子树结点数加上delta。
+     */
+    protected void addSize(Node<T> node, int delta) {
+        for (; node != null; node = node.parent) {
+            node.size += delta;
+        }
+    }
+
+    /**
+     * 第k小（k从0开始）的元素所在结点，k超出范围时返回null。
+     * 比较k与左子树的结点数决定向左还是向右，向右时k减去左子树和当前结点的个数，O(logn)。
+     */
+    public Node<T> select(int k) {
+        if (k < 0 || k >= this.size()) {
+            return null;
+        }
+        Node<T> cur = this.getRoot();
+        while (true) {
+            int left_size = this.getSize(cur.left);
+            if (k == left_size) {
+                return cur;
+            }
+            if (k < left_size) {
+                cur = cur.left;
+            } else {
+                k -= left_size + 1;
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * 树中小于val的元素个数，val可以不在树中，O(logn)。
+     */
+    public int rank(T val) {
+        return this.rank(val, false);
+    }
+
+    /**
+     * 树中位于[lo, hi]的元素个数，O(logn)。
+     */
+    public int countInRange(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return this.rank(hi, true) - this.rank(lo, false);
+    }
+
+    /**
+     * 小于val（inclusive为true时为小于等于）的元素个数。
+     */
+    protected int rank(T val, boolean inclusive) {
+        int count = 0;
+        Node<T> cur = this.getRoot();
+        while (cur != null) {
+            int compare_res = val.compareTo(cur.val);
+            if (compare_res > 0 || (compare_res == 0 && inclusive)) {
+                count += this.getSize(cur.left) + 1; // 左子树和当前结点都小于val。
+                cur = cur.right;
+            } else {
+                cur = cur.left;
+            }
+        }
+        return count;
+    }
+
     /**
      * 计算平衡因子。
      */
@@ -277,11 +363,14 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
         }
         // 3. 更新node结点高度。
         node.height = Math.max(this.getHeight(node.left), this.getHeight(node.right)) + 1;
+        int size = node.size; // 旋转前后子树的结点数不变。
+        node.size = this.getSize(node.left) + this.getSize(node.right) + 1;
 
         replace_node.left = node; // 1. 更新replace_node结点左子树。
         replace_node.left.parent = replace_node; // 2. 更新replace_node结点左子树父结点的指向。
         replace_node.height = Math.max(this.getHeight(replace_node.left),
                 this.getHeight(replace_node.right)) + 1; // 3. 更新replace_node结点的高度。
+        replace_node.size = size;
     }
 
     /**
@@ -319,11 +408,14 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
             node.left.parent = node;
         }
         node.height = Math.max(this.getHeight(node.left), this.getHeight(node.right)) + 1;
+        int size = node.size; // 旋转前后子树的结点数不变。
+        node.size = this.getSize(node.left) + this.getSize(node.right) + 1;
 
         replace_node.right = node;
         replace_node.right.parent = replace_node;
         replace_node.height = Math.max(this.getHeight(replace_node.left),
                 this.getHeight(replace_node.right)) + 1;
+        replace_node.size = size;
     }
 
     /**
@@ -374,8 +466,9 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
                 parent = parent.parent;
                 continue;
             }
+            // 与插入不同，删除后的平衡化操作可能使子树高度减一，需要从旋转后子树的根结点继续向上回溯。
             this.balanceTree(parent);
-            break;
+            parent = parent.parent.parent;
         }
     }
 
@@ -398,13 +491,14 @@ public class BalancedBinaryTree<T extends Comparable<T>> extends Tree<T> {
      *      -         |          #          |           +          |   RL   |
      *      -         |          #          |           -          |   RR   |
      * ----------------------------------------------------------------------
+     * 删除结点后子树的平衡因子还可能为0，此时按LL（或RR）进行一次单旋转即可，双旋转反而会使树不平衡。
      */
     public void balanceTree(Node<T> node) {
         int balance_factor = this.getBalanceFactor(node);
         int left_balance_factor = getBalanceFactor(node.left);
         int right_balance_factor = getBalanceFactor(node.right);
         if (balance_factor > 0) {
-            if (left_balance_factor > 0) {
+            if (left_balance_factor >= 0) {
                 this.rightRotate(node);
             } else {
                 this.leftRotate(node.left);
@@ -0,0 +1,736 @@
+package cn.ning.algorithm.tree;
+
+/**
+ * 并发AVL树。
+ * BalancedBinaryTree不是线程安全的，用一把全局锁包装后读操作无法并行。本类参考Bronson等人的乐观并发AVL树
+ * (A Practical Concurrent Binary Search Tree, PPoPP 2010)：
+ *     1. 查找不加锁。每个结点有一个版本号，旋转会使一个结点的子树变小（被旋转下去的结点丢失一部分子孙），
+ *        旋转期间在版本号上设置SHRINKING标记，结束时增加版本号。查找自根向下逐个结点进行，离开一个结点前
+ *        检查它的版本号没有变化，否则回到上一层重试，因此不会因为并发的旋转而漏掉结点。
+ *     2. 插入、删除和旋转只锁住被修改的结点（父结点、结点、孩子结点，总是按自上而下的顺序加锁）。
+ *     3. 删除有两个孩子的结点时只把值置为null，结点变为路由结点，继续参与查找；在它少于两个孩子时，
+ *        平衡化操作会把它从树中摘除。
+ *     4. 平衡是松弛的：插入、删除后自下而上修正高度并旋转，并发时高度可能短暂不准确，没有并发修改时
+ *        树满足AVL的定义。
+ * 键按自然顺序排序，键和值都不能为null。
+ * 时间复杂度：查找、插入、删除O(logn)；size()需要遍历整棵树，并发修改时结果只是近似值。
+ */
+public class ConcurrentBalancedBinaryTree<K extends Comparable<K>, V> {
+
+    private static final long UNLINKED = 1L; // 结点已经从树中摘除。
+    private static final long SHRINKING = 2L; // 结点正在被旋转下去。
+    private static final long VERSION_INCREMENT = 4L;
+    private static final int SPIN_COUNT = 100; // 等待旋转结束时先自旋的次数，之后通过加锁等待。
+    private static final Object RETRY = new Object(); // 需要回到上一层重试。
+
+    // 以下是nodeCondition的返回值，非负值表示结点只需要把高度修正为该值。
+    private static final int UNLINK_REQUIRED = -1;
+    private static final int REBALANCE_REQUIRED = -2;
+    private static final int NOTHING_REQUIRED = -3;
+
+    static final class TreeNode<K, V> {
+        final K key;
+        volatile V value; // null表示路由结点。
+        volatile int height; // 叶子结点高度为1。
+        volatile long version;
+        volatile TreeNode<K, V> parent;
+        volatile TreeNode<K, V> left;
+        volatile TreeNode<K, V> right;
+
+        TreeNode(K key, V value, TreeNode<K, V> parent) {
+            this.key = key;
+            this.value = value;
+            this.height = 1;
+            this.parent = parent;
+        }
+
+        TreeNode<K, V> child(int dir) {
+            return dir < 0 ? left : right;
+        }
+
+        void setChild(int dir, TreeNode<K, V> node) {
+            if (dir < 0) {
+                left = node;
+            } else {
+                right = node;
+            }
+        }
+    }
+
+    // 根结点是holder的右孩子。holder本身不会被旋转，版本号始终为0。
+    private final TreeNode<K, V> holder = new TreeNode<>(null, null, null);
+
+    /**
+     * 元素个数，遍历整棵树得到。
+     */
+    public int size() {
+        return count(holder.right);
+    }
+
+    private int count(TreeNode<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+        return count(node.left) + count(node.right) + (node.value != null ? 1 : 0);
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * 查找键对应的值，不加锁。
+     * @return 键不存在时返回null。
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            Object res = attemptGet(key, holder, 1, 0L);
+            if (res != RETRY) {
+                return (V) res;
+            }
+        }
+    }
+
+    /**
+     * 在node的dir方向的子树中查找key。进入该方法时node的版本号为node_version。
+     */
+    private Object attemptGet(K key, TreeNode<K, V> node, int dir, long node_version) {
+        while (true) {
+            TreeNode<K, V> child = node.child(dir);
+            if (node.version != node_version) {
+                return RETRY; // node在读取child之前已经被旋转或摘除，child可能不是正确的子树。
+            }
+            if (child == null) {
+                return null;
+            }
+            int next_dir = key.compareTo(child.key);
+            if (next_dir == 0) {
+                return child.value;
+            }
+            long child_version = child.version;
+            if ((child_version & SHRINKING) != 0) {
+                waitUntilNotShrinking(child);
+            } else if (child_version != UNLINKED && child == node.child(dir)) {
+                if (node.version != node_version) {
+                    return RETRY;
+                }
+                Object res = attemptGet(key, child, next_dir, child_version);
+                if (res != RETRY) {
+                    return res;
+                }
+            }
+            // 否则child已经变化，在node上重试。
+        }
+    }
+
+    /**
+     * 插入或替换。
+     * @return 原来的值，键不存在时返回null。
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            Object res = attemptPut(key, value, holder, 1, 0L);
+            if (res != RETRY) {
+                return (V) res;
+            }
+        }
+    }
+
+    private Object attemptPut(K key, V value, TreeNode<K, V> node, int dir, long node_version) {
+        while (true) {
+            TreeNode<K, V> child = node.child(dir);
+            if (node.version != node_version) {
+                return RETRY;
+            }
+            if (child == null) {
+                // 作为node的孩子插入新结点，只需要锁住node。
+                synchronized (node) {
+                    if (node.version != node_version) {
+                        return RETRY;
+                    }
+                    if (node.child(dir) != null) {
+                        continue;
+                    }
+                    node.setChild(dir, new TreeNode<>(key, value, node));
+                }
+                fixHeightAndRebalance(node);
+                return null;
+            }
+            int next_dir = key.compareTo(child.key);
+            if (next_dir == 0) {
+                synchronized (child) {
+                    if (child.version == UNLINKED) {
+                        return RETRY;
+                    }
+                    V old_value = child.value;
+                    child.value = value; // 路由结点会重新成为普通结点。
+                    return old_value;
+                }
+            }
+            long child_version = child.version;
+            if ((child_version & SHRINKING) != 0) {
+                waitUntilNotShrinking(child);
+            } else if (child_version != UNLINKED && child == node.child(dir)) {
+                if (node.version != node_version) {
+                    return RETRY;
+                }
+                Object res = attemptPut(key, value, child, next_dir, child_version);
+                if (res != RETRY) {
+                    return res;
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除。
+     * @return 被删除的值，键不存在时返回null。
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            Object res = attemptRemove(key, holder, 1, 0L);
+            if (res != RETRY) {
+                return (V) res;
+            }
+        }
+    }
+
+    private Object attemptRemove(K key, TreeNode<K, V> node, int dir, long node_version) {
+        while (true) {
+            TreeNode<K, V> child = node.child(dir);
+            if (node.version != node_version) {
+                return RETRY;
+            }
+            if (child == null) {
+                return null;
+            }
+            int next_dir = key.compareTo(child.key);
+            if (next_dir == 0) {
+                Object res = attemptRemoveNode(node, child);
+                if (res != RETRY) {
+                    return res;
+                }
+                continue;
+            }
+            long child_version = child.version;
+            if ((child_version & SHRINKING) != 0) {
+                waitUntilNotShrinking(child);
+            } else if (child_version != UNLINKED && child == node.child(dir)) {
+                if (node.version != node_version) {
+                    return RETRY;
+                }
+                Object res = attemptRemove(key, child, next_dir, child_version);
+                if (res != RETRY) {
+                    return res;
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除结点node：有两个孩子时变为路由结点，否则锁住父结点和node，将node摘除。
+     */
+    private Object attemptRemoveNode(TreeNode<K, V> parent, TreeNode<K, V> node) {
+        if (node.value == null) {
+            return null;
+        }
+        V old_value;
+        if (node.left != null && node.right != null) {
+            synchronized (node) {
+                if (node.version == UNLINKED) {
+                    return RETRY;
+                }
+                old_value = node.value;
+                node.value = null;
+            }
+            return old_value;
+        }
+        synchronized (parent) {
+            if (parent.version == UNLINKED || node.parent != parent) {
+                return RETRY;
+            }
+            synchronized (node) {
+                old_value = node.value;
+                if (old_value == null) {
+                    return null;
+                }
+                node.value = null;
+                if (node.left != null && node.right != null) {
+                    return old_value; // 加锁前node又有了两个孩子，保留为路由结点。
+                }
+                unlink(parent, node);
+            }
+        }
+        fixHeightAndRebalance(parent);
+        return old_value;
+    }
+
+    /**
+     * 等待结点的旋转结束。旋转时持有结点的锁，自旋一段时间后通过加锁等待。
+     */
+    private void waitUntilNotShrinking(TreeNode<K, V> node) {
+        long version = node.version;
+        if ((version & SHRINKING) == 0) {
+            return;
+        }
+        for (int i = 0; i < SPIN_COUNT; i++) {
+            if (node.version != version) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (node) {
+            // 获得锁时旋转已经结束。
+        }
+    }
+
+    /**
+     * 将至多有一个孩子的node从树中摘除，需要持有parent和node的锁。
+     */
+    private boolean unlink(TreeNode<K, V> parent, TreeNode<K, V> node) {
+        TreeNode<K, V> parent_left = parent.left;
+        if (parent_left != node && parent.right != node) {
+            return false;
+        }
+        TreeNode<K, V> left = node.left;
+        TreeNode<K, V> right = node.right;
+        if (left != null && right != null) {
+            return false;
+        }
+        TreeNode<K, V> splice = left != null ? left : right;
+        if (parent_left == node) {
+            parent.left = splice;
+        } else {
+            parent.right = splice;
+        }
+        if (splice != null) {
+            splice.parent = parent;
+        }
+        node.version = UNLINKED;
+        node.value = null;
+        return true;
+    }
+
+    private static int height(TreeNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * 判断结点需要的操作：摘除路由结点、旋转、修正高度（返回正确的高度）或者什么都不需要。
+     */
+    private int nodeCondition(TreeNode<K, V> node) {
+        TreeNode<K, V> left = node.left;
+        TreeNode<K, V> right = node.right;
+        if ((left == null || right == null) && node.value == null) {
+            return UNLINK_REQUIRED;
+        }
+        int left_height = height(left);
+        int right_height = height(right);
+        int balance_factor = left_height - right_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return REBALANCE_REQUIRED;
+        }
+        int new_height = 1 + Math.max(left_height, right_height);
+        return node.height != new_height ? new_height : NOTHING_REQUIRED;
+    }
+
+    /**
+     * 从node开始自下而上修正高度、摘除路由结点并旋转，直到不需要修改为止。
+     * 只修正高度时锁住node；旋转和摘除时锁住父结点和node，旋转中再锁住孩子结点。
+     * 旋转后可能先返回下面的结点继续处理，此时上面的结点高度还没有修正，因此发生过旋转或摘除后
+     * 一直检查到根结点，而不是在第一个不需要修改的结点处停止。
+     */
+    private void fixHeightAndRebalance(TreeNode<K, V> node) {
+        boolean to_root = false;
+        while (node != null && node.parent != null) {
+            if (node.version == UNLINKED) {
+                return;
+            }
+            int condition = nodeCondition(node);
+            TreeNode<K, V> next;
+            if (condition == NOTHING_REQUIRED) {
+                next = null;
+            } else if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                synchronized (node) {
+                    next = fixHeight(node);
+                }
+            } else {
+                next = node; // 父结点已经变化时重试。
+                TreeNode<K, V> parent = node.parent;
+                synchronized (parent) {
+                    if (parent.version != UNLINKED && node.parent == parent) {
+                        synchronized (node) {
+                            next = rebalance(parent, node);
+                            to_root = true;
+                        }
+                    }
+                }
+            }
+            if (next == null && to_root) {
+                next = node.parent;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * 修正node的高度，需要持有node的锁。返回下一个需要处理的结点。
+     */
+    private TreeNode<K, V> fixHeight(TreeNode<K, V> node) {
+        int condition = nodeCondition(node);
+        switch (condition) {
+            case REBALANCE_REQUIRED:
+            case UNLINK_REQUIRED:
+                return node;
+            case NOTHING_REQUIRED:
+                return null;
+            default:
+                node.height = condition;
+                return node.parent;
+        }
+    }
+
+    /**
+     * 对node进行平衡化操作，需要持有parent和node的锁。返回下一个需要处理的结点。
+     */
+    private TreeNode<K, V> rebalance(TreeNode<K, V> parent, TreeNode<K, V> node) {
+        TreeNode<K, V> left = node.left;
+        TreeNode<K, V> right = node.right;
+        if ((left == null || right == null) && node.value == null) {
+            return unlink(parent, node) ? fixHeight(parent) : node;
+        }
+        int left_height = height(left);
+        int right_height = height(right);
+        int balance_factor = left_height - right_height;
+        if (balance_factor > 1) {
+            return rebalanceToRight(parent, node, left, right_height);
+        } else if (balance_factor < -1) {
+            return rebalanceToLeft(parent, node, right, left_height);
+        }
+        int new_height = 1 + Math.max(left_height, right_height);
+        if (new_height != node.height) {
+            node.height = new_height;
+            return fixHeight(parent);
+        }
+        return null;
+    }
+
+    /**
+     * 左子树过高：LL型右旋，LR型先左旋左孩子再右旋（可以一次完成时直接进行双旋转）。
+     */
+    private TreeNode<K, V> rebalanceToRight(TreeNode<K, V> parent, TreeNode<K, V> node,
+                                            TreeNode<K, V> left, int right_height) {
+        synchronized (left) {
+            int left_height = left.height;
+            if (left_height - right_height <= 1) {
+                return node; // 加锁前情况已经变化，重新判断。
+            }
+            TreeNode<K, V> left_right = left.right;
+            int left_left_height = height(left.left);
+            int left_right_height = height(left_right);
+            if (left_left_height >= left_right_height) {
+                return rotateRight(parent, node, left, right_height, left_left_height,
+                        left_right, left_right_height);
+            }
+            synchronized (left_right) {
+                left_right_height = left_right.height;
+                if (left_left_height >= left_right_height) {
+                    return rotateRight(parent, node, left, right_height, left_left_height,
+                            left_right, left_right_height);
+                }
+                int left_right_left_height = height(left_right.left);
+                int balance_factor = left_left_height - left_right_left_height;
+                if (balance_factor >= -1 && balance_factor <= 1) {
+                    return rotateRightOverLeft(parent, node, left, right_height, left_left_height,
+                            left_right, left_right_left_height);
+                }
+                if (balance_factor > 1) {
+                    return left_right; // left_right本身不平衡（只在并发修改后出现），先处理它，node稍后重新平衡。
+                }
+            }
+            return rebalanceToLeft(node, left, left_right, left_left_height);
+        }
+    }
+
+    /**
+     * 右子树过高，与rebalanceToRight对称。
+     */
+    private TreeNode<K, V> rebalanceToLeft(TreeNode<K, V> parent, TreeNode<K, V> node,
+                                           TreeNode<K, V> right, int left_height) {
+        synchronized (right) {
+            int right_height = right.height;
+            if (left_height - right_height >= -1) {
+                return node;
+            }
+            TreeNode<K, V> right_left = right.left;
+            int right_left_height = height(right_left);
+            int right_right_height = height(right.right);
+            if (right_right_height >= right_left_height) {
+                return rotateLeft(parent, node, left_height, right, right_left, right_left_height,
+                        right_right_height);
+            }
+            synchronized (right_left) {
+                right_left_height = right_left.height;
+                if (right_right_height >= right_left_height) {
+                    return rotateLeft(parent, node, left_height, right, right_left, right_left_height,
+                            right_right_height);
+                }
+                int right_left_right_height = height(right_left.right);
+                int balance_factor = right_right_height - right_left_right_height;
+                if (balance_factor >= -1 && balance_factor <= 1) {
+                    return rotateLeftOverRight(parent, node, left_height, right, right_left,
+                            right_right_height, right_left_right_height);
+                }
+                if (balance_factor > 1) {
+                    return right_left;
+                }
+            }
+            return rebalanceToRight(node, right, right_left, right_right_height);
+        }
+    }
+
+    /**
+     *            右旋，node被旋转下去，子树变小。
+     * --------------------------+
+     *       node        left    |
+     *       / \         / \     |
+     *    left      ===>    node |
+     *     / \              / \  |
+     *        lr           lr    |
+     * --------------------------+
+     * 需要持有parent、node和left的锁。
+     */
+    private TreeNode<K, V> rotateRight(TreeNode<K, V> parent, TreeNode<K, V> node, TreeNode<K, V> left,
+                                       int right_height, int left_left_height,
+                                       TreeNode<K, V> left_right, int left_right_height) {
+        long node_version = node.version;
+        TreeNode<K, V> parent_left = parent.left;
+        node.version = node_version | SHRINKING;
+
+        node.left = left_right;
+        if (left_right != null) {
+            left_right.parent = node;
+        }
+        left.right = node;
+        node.parent = left;
+        if (parent_left == node) {
+            parent.left = left;
+        } else {
+            parent.right = left;
+        }
+        left.parent = parent;
+
+        int node_height = 1 + Math.max(left_right_height, right_height);
+        node.height = node_height;
+        left.height = 1 + Math.max(left_left_height, node_height);
+
+        node.version = node_version + VERSION_INCREMENT;
+
+        // 返回仍需要处理的结点。
+        int balance_factor = left_right_height - right_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return node;
+        }
+        if ((left_right == null || right_height == 0) && node.value == null) {
+            return node;
+        }
+        balance_factor = left_left_height - node_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return left;
+        }
+        if (left_left_height == 0 && left.value == null) {
+            return left;
+        }
+        return fixHeight(parent);
+    }
+
+    /**
+     * 左旋，与rotateRight对称。
+     */
+    private TreeNode<K, V> rotateLeft(TreeNode<K, V> parent, TreeNode<K, V> node, int left_height,
+                                      TreeNode<K, V> right, TreeNode<K, V> right_left,
+                                      int right_left_height, int right_right_height) {
+        long node_version = node.version;
+        TreeNode<K, V> parent_left = parent.left;
+        node.version = node_version | SHRINKING;
+
+        node.right = right_left;
+        if (right_left != null) {
+            right_left.parent = node;
+        }
+        right.left = node;
+        node.parent = right;
+        if (parent_left == node) {
+            parent.left = right;
+        } else {
+            parent.right = right;
+        }
+        right.parent = parent;
+
+        int node_height = 1 + Math.max(left_height, right_left_height);
+        node.height = node_height;
+        right.height = 1 + Math.max(node_height, right_right_height);
+
+        node.version = node_version + VERSION_INCREMENT;
+
+        int balance_factor = right_left_height - left_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return node;
+        }
+        if ((right_left == null || left_height == 0) && node.value == null) {
+            return node;
+        }
+        balance_factor = right_right_height - node_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return right;
+        }
+        if (right_right_height == 0 && right.value == null) {
+            return right;
+        }
+        return fixHeight(parent);
+    }
+
+    /**
+     * LR型双旋转，node和left都被旋转下去。
+     * --------------------------------------+
+     *        node                lr         |
+     *        / \               /    \       |
+     *     left       ===>   left    node    |
+     *     / \               / \     / \     |
+     *       lr                lrl lrr       |
+     *      / \                              |
+     *    lrl lrr                            |
+     * --------------------------------------+
+     * 需要持有parent、node、left和lr的锁。
+     */
+    private TreeNode<K, V> rotateRightOverLeft(TreeNode<K, V> parent, TreeNode<K, V> node, TreeNode<K, V> left,
+                                               int right_height, int left_left_height,
+                                               TreeNode<K, V> left_right, int left_right_left_height) {
+        long node_version = node.version;
+        long left_version = left.version;
+        TreeNode<K, V> parent_left = parent.left;
+        TreeNode<K, V> left_right_left = left_right.left;
+        TreeNode<K, V> left_right_right = left_right.right;
+        int left_right_right_height = height(left_right_right);
+
+        node.version = node_version | SHRINKING;
+        left.version = left_version | SHRINKING;
+
+        node.left = left_right_right;
+        if (left_right_right != null) {
+            left_right_right.parent = node;
+        }
+        left.right = left_right_left;
+        if (left_right_left != null) {
+            left_right_left.parent = left;
+        }
+        left_right.left = left;
+        left.parent = left_right;
+        left_right.right = node;
+        node.parent = left_right;
+        if (parent_left == node) {
+            parent.left = left_right;
+        } else {
+            parent.right = left_right;
+        }
+        left_right.parent = parent;
+
+        int node_height = 1 + Math.max(left_right_right_height, right_height);
+        node.height = node_height;
+        int left_height = 1 + Math.max(left_left_height, left_right_left_height);
+        left.height = left_height;
+        left_right.height = 1 + Math.max(left_height, node_height);
+
+        node.version = node_version + VERSION_INCREMENT;
+        left.version = left_version + VERSION_INCREMENT;
+
+        int balance_factor = left_right_right_height - right_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return node;
+        }
+        if ((left_right_right == null || right_height == 0) && node.value == null) {
+            return node;
+        }
+        if ((left_left_height == 0 || left_right_left == null) && left.value == null) {
+            return left; // left是路由结点，旋转后少于两个孩子，需要摘除。
+        }
+        balance_factor = left_height - node_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return left_right;
+        }
+        return fixHeight(parent);
+    }
+
+    /**
+     * RL型双旋转，与rotateRightOverLeft对称。
+     */
+    private TreeNode<K, V> rotateLeftOverRight(TreeNode<K, V> parent, TreeNode<K, V> node, int left_height,
+                                               TreeNode<K, V> right, TreeNode<K, V> right_left,
+                                               int right_right_height, int right_left_right_height) {
+        long node_version = node.version;
+        long right_version = right.version;
+        TreeNode<K, V> parent_left = parent.left;
+        TreeNode<K, V> right_left_left = right_left.left;
+        TreeNode<K, V> right_left_right = right_left.right;
+        int right_left_left_height = height(right_left_left);
+
+        node.version = node_version | SHRINKING;
+        right.version = right_version | SHRINKING;
+
+        node.right = right_left_left;
+        if (right_left_left != null) {
+            right_left_left.parent = node;
+        }
+        right.left = right_left_right;
+        if (right_left_right != null) {
+            right_left_right.parent = right;
+        }
+        right_left.right = right;
+        right.parent = right_left;
+        right_left.left = node;
+        node.parent = right_left;
+        if (parent_left == node) {
+            parent.left = right_left;
+        } else {
+            parent.right = right_left;
+        }
+        right_left.parent = parent;
+
+        int node_height = 1 + Math.max(left_height, right_left_left_height);
+        node.height = node_height;
+        int right_height = 1 + Math.max(right_left_right_height, right_right_height);
+        right.height = right_height;
+        right_left.height = 1 + Math.max(node_height, right_height);
+
+        node.version = node_version + VERSION_INCREMENT;
+        right.version = right_version + VERSION_INCREMENT;
+
+        int balance_factor = right_left_left_height - left_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return node;
+        }
+        if ((right_left_left == null || left_height == 0) && node.value == null) {
+            return node;
+        }
+        if ((right_right_height == 0 || right_left_right == null) && right.value == null) {
+            return right;
+        }
+        balance_factor = right_height - node_height;
+        if (balance_factor < -1 || balance_factor > 1) {
+            return right_left;
+        }
+        return fixHeight(parent);
+    }
+}
@@ -0,0 +1,287 @@
+package cn.ning.algorithm.tree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * 并发映射基准测试
+ * 多个线程在同一个映射上按给定的读写比例执行随机操作，输出总吞吐量（百万次操作/秒）。写操作中插入和删除
+ * 各占一半，键在[0, 2 * size)中均匀分布，映射预先填入一半的键，因此测试期间映射大小基本不变。
+ * 键以int传给各映射，需要对象键的映射自己装箱，基本类型的实现（intSkipList）不受装箱影响。
+ *
+ * 用法：java cn.ning.algorithm.tree.ConcurrentMapBenchmark [线程数列表] [读操作百分比列表] [规模] [映射列表]
+ *      例如：java cn.ning.algorithm.tree.ConcurrentMapBenchmark 1,4,16,64 90,50 1000000 intSkipList,globalLockRedBlack
+ *      不指定参数时，线程数为1到64（2的幂），读操作比例为100、90、50，规模为1M，测试所有映射。
+ *      线程数超过处理器数时，持有锁的线程可能被换出，其他线程只能等待，加锁的映射吞吐量会明显下降；
+ *      无锁的实现中被换出的线程不妨碍其他线程。
+ *      每次测量的时长（毫秒）、预热次数和测量次数可以通过系统属性bench.millis、bench.warmup和
+ *      bench.iterations调整。
+ */
+public class ConcurrentMapBenchmark {
+    private static final int DEFAULT_SIZE = 1_000_000;
+    private static final int DEFAULT_MAX_THREADS = 64;
+    private static final int[] DEFAULT_READ_PERCENTS = {100, 90, 50};
+    private static final long MEASURE_MILLIS = Long.getLong("bench.millis", 1000L); // 单次测量的时长。
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("bench.warmup", 2); // 预热次数。
+    private static final int MEASURE_ITERATIONS = Integer.getInteger("bench.iterations", 3); // 测量次数。
+
+    static volatile long sink; // 防止测试结果被JIT消除。
+    private static volatile boolean stopped; // 本次测量是否结束。
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] threads = args.length > 0 ? parseInts(args[0]) : defaultThreads();
+        int[] read_percents = args.length > 1 ? parseInts(args[1]) : DEFAULT_READ_PERCENTS;
+        int size = args.length > 2 ? parseInts(args[2])[0] : DEFAULT_SIZE;
+        Map<String, Supplier<Target>> targets = targets();
+        if (args.length > 3) {
+            Map<String, Supplier<Target>> selected = new LinkedHashMap<>();
+            for (String name : args[3].split(",")) {
+                Supplier<Target> target = targets.get(name);
+                if (target == null) {
+                    throw new IllegalArgumentException("unknown map: " + name);
+                }
+                selected.put(name, target);
+            }
+            targets = selected;
+        }
+
+        System.out.printf("%-20s %8s %6s %10s %10s%n", "map", "threads", "read%", "size", "Mops/s");
+        for (int read_percent : read_percents) {
+            for (int thread_count : threads) {
+                for (Map.Entry<String, Supplier<Target>> entry : targets.entrySet()) {
+                    double ops = measure(entry.getValue(), thread_count, read_percent, size);
+                    System.out.printf("%-20s %8d %6d %10d %10.2f%n", entry.getKey(), thread_count,
+                            read_percent, size, ops / 1e6);
+                }
+            }
+        }
+    }
+
+    /**
+     * 映射上的操作。
+     */
+    interface Target {
+        boolean get(int key);
+
+        void put(int key);
+
+        void remove(int key);
+    }
+
+    /**
+     * 参与测试的映射。globalLockAvl、globalLockRedBlack是用一把全局锁保护的BalancedBinaryTree、RedBlackTree，
+     * 作为对照。
+     */
+    static Map<String, Supplier<Target>> targets() {
+        Map<String, Supplier<Target>> targets = new LinkedHashMap<>();
+        targets.put("skipList", () -> {
+            ConcurrentSkipListMap<Integer, Integer> map = new ConcurrentSkipListMap<>();
+            return new Target() {
+                public boolean get(int key) {
+                    return map.get(key) != null;
+                }
+
+                public void put(int key) {
+                    map.put(key, key);
+                }
+
+                public void remove(int key) {
+                    map.remove(key);
+                }
+            };
+        });
+        targets.put("concurrentAvl", () -> {
+            ConcurrentBalancedBinaryTree<Integer, Integer> tree = new ConcurrentBalancedBinaryTree<>();
+            return new Target() {
+                public boolean get(int key) {
+                    return tree.get(key) != null;
+                }
+
+                public void put(int key) {
+                    tree.put(key, key);
+                }
+
+                public void remove(int key) {
+                    tree.remove(key);
+                }
+            };
+        });
+        targets.put("lockFreeSkipList", () -> {
+            LockFreeSkipList<Integer> list = new LockFreeSkipList<>();
+            return new Target() {
+                public boolean get(int key) {
+                    return list.contains(key);
+                }
+
+                public void put(int key) {
+                    list.insert(key);
+                }
+
+                public void remove(int key) {
+                    list.delete(key);
+                }
+            };
+        });
+        targets.put("intSkipList", () -> {
+            IntLockFreeSkipList list = new IntLockFreeSkipList();
+            return new Target() {
+                public boolean get(int key) {
+                    return list.contains(key);
+                }
+
+                public void put(int key) {
+                    list.insert(key);
+                }
+
+                public void remove(int key) {
+                    list.delete(key);
+                }
+            };
+        });
+        targets.put("globalLockAvl", () -> {
+            BalancedBinaryTree<Integer> tree = new BalancedBinaryTree<>();
+            return new Target() {
+                public synchronized boolean get(int key) {
+                    return tree.find(key) != null;
+                }
+
+                public synchronized void put(int key) {
+                    tree.insert(key);
+                }
+
+                public synchronized void remove(int key) {
+                    tree.delete(key);
+                }
+            };
+        });
+        targets.put("globalLockRedBlack", () -> {
+            RedBlackTree<Integer> tree = new RedBlackTree<>();
+            return new Target() {
+                public synchronized boolean get(int key) {
+                    return tree.find(key) != null;
+                }
+
+                public synchronized void put(int key) {
+                    tree.insert(key);
+                }
+
+                public synchronized void remove(int key) {
+                    tree.delete(key);
+                }
+            };
+        });
+        return targets;
+    }
+
+    /**
+     * 预热后进行多次测量，返回最好的吞吐量（次/秒）。
+     */
+    static double measure(Supplier<Target> factory, int thread_count, int read_percent, int size)
+            throws InterruptedException {
+        Target target = factory.get();
+        long seed = 42;
+        for (int i = 0; i < size; i++) {
+            seed = nextRandom(seed);
+            target.put((int) ((seed >>> 33) % (2L * size)));
+        }
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run(target, thread_count, read_percent, size);
+        }
+        double best = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            best = Math.max(best, run(target, thread_count, read_percent, size));
+        }
+        return best;
+    }
+
+    /**
+     * 启动thread_count个线程执行MEASURE_MILLIS毫秒，返回吞吐量（次/秒）。
+     */
+    private static double run(Target target, int thread_count, int read_percent, int size)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long[] counts = new long[thread_count];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < thread_count; t++) {
+            final int id = t;
+            Thread worker = new Thread(() -> {
+                long random = 0x9E3779B97F4A7C15L * (id + 1);
+                long ops = 0;
+                long found = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (!stopped) {
+                    for (int i = 0; i < 64; i++) { // 每64次操作检查一次是否结束。
+                        random = nextRandom(random);
+                        int key = (int) ((random >>> 33) % (2L * size));
+                        int percent = (int) ((random & 0xFFFF) % 100);
+                        if (percent < read_percent) {
+                            if (target.get(key)) {
+                                found++;
+                            }
+                        } else if ((random & 0x10000) == 0) {
+                            target.put(key);
+                        } else {
+                            target.remove(key);
+                        }
+                    }
+                    ops += 64;
+                }
+                counts[id] = ops;
+                sink = found;
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        stopped = false;
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(MEASURE_MILLIS);
+        stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total * 1e9 / elapsed;
+    }
+
+    /**
+     * 线性同余随机数，避免java.util.Random在多线程下的竞争。
+     */
+    private static long nextRandom(long seed) {
+        return seed * 6364136223846793005L + 1442695040888963407L;
+    }
+
+    private static int[] defaultThreads() {
+        List<Integer> threads = new ArrayList<>();
+        for (int t = 1; t <= DEFAULT_MAX_THREADS; t *= 2) {
+            threads.add(t);
+        }
+        int[] res = new int[threads.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = threads.get(i);
+        }
+        return res;
+    }
+
+    private static int[] parseInts(String arg) {
+        String[] parts = arg.split(",");
+        int[] res = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            res[i] = Integer.parseInt(parts[i].trim().replace("_", ""));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,552 @@
+package cn.ning.algorithm.tree;
+
+import java.util.Arrays;
+
+/**
+ * 基本类型键的红黑树（int）。
+ * 插入、删除和修正的方法与RedBlackTree相同，但不为每个结点创建Node对象：所有结点保存在平行的基本类型数组中，
+ * 结点用数组下标表示，其键、左孩子、右孩子、父结点分别是keys、left、right、parent中的一项，颜色是colors位图中
+ * 的一位（1为红色）。下标0是哨兵结点NIL，颜色为黑色，代替null作为叶子结点，修正时不需要判断空结点。
+ * 被删除的结点通过left链接成空闲链表，之后插入时优先复用；数组不够时按1.5倍扩容。
+ *
+ * 与RedBlackTree<Integer>相比：
+ *     1. 每个键占用4 + 12字节和1位颜色（调用put后每个值再占用4字节）；RedBlackTree<Integer>每个键需要一个
+ *        Node对象（40字节）和一个Integer对象（16字节），还有对象头和指针。
+ *     2. 整棵树只有几个数组，基本类型数组不需要垃圾回收器逐个扫描。
+ *     3. 查找时直接比较基本类型，没有compareTo虚调用和拆箱。
+ * 结点下标在该结点被删除之前保持不变。
+ * 不是线程安全的。
+ */
+public class IntRedBlackTree {
+    public static final int NIL = 0; // 哨兵结点。
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values; // 第一次调用put时才分配。
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private long[] colors; // 颜色位图，1为红色，0为黑色。
+    private int root = NIL;
+    private int size;
+    private int next = 1; // 从未使用过的最小下标。
+    private int free = NIL; // 空闲链表的表头。
+
+    public IntRedBlackTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 初始容量（结点个数）
+     */
+    public IntRedBlackTree(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity < 0: " + capacity);
+        int len = capacity + 1; // 包括哨兵结点。
+        keys = new int[len];
+        left = new int[len];
+        right = new int[len];
+        parent = new int[len];
+        colors = new long[(len + 63) >>> 6];
+    }
+
+    /**
+     * 构建红黑树。
+     * @param order 被构建序列。
+     */
+    public void build(int[] order) {
+        for (int item : order) {
+            if (!insert(item)) {
+                System.out.println(item + "已经存在。");
+            }
+        }
+    }
+
+    /**
+     * 元素个数。
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空，保留已分配的数组。
+     */
+    public void clear() {
+        root = NIL;
+        size = 0;
+        next = 1;
+        free = NIL;
+        Arrays.fill(colors, 0);
+    }
+
+    /**
+     * 插入键。
+     * @param key 被插入的键。
+     * @return 如果键不存在则插入并返回true；否则返回false。
+     */
+    public boolean insert(int key) {
+        return insert(key, 0, false);
+    }
+
+    /**
+     * 插入键值对，键已经存在时替换其值。
+     * @param key 键
+     * @param value 值
+     * @return 如果键不存在则插入并返回true；否则替换值并返回false。
+     */
+    public boolean put(int key, int value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * 获取键对应的值。
+     * @param key 键
+     * @param default_value 键不存在时返回的值
+     * @return 键对应的值，用insert插入的键的值为0。
+     */
+    public int get(int key, int default_value) {
+        int node = find(key);
+        return node == NIL ? default_value : value(node);
+    }
+
+    public boolean contains(int key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * 查找。
+     * @param key 待查找元素的键。
+     * @return 如果找到key，则返回该结点；否则返回NIL。
+     */
+    public int find(int key) {
+        int cur = root;
+        while (cur != NIL) {
+            int cur_key = keys[cur];
+            if (key == cur_key) {
+                return cur;
+            }
+            cur = key < cur_key ? left[cur] : right[cur];
+        }
+        return NIL;
+    }
+
+    /**
+     * 结点的键。
+     */
+    public int key(int node) {
+        return keys[node];
+    }
+
+    /**
+     * 结点的值，没有用put设置过值的结点返回0。
+     */
+    public int value(int node) {
+        return values == null ? 0 : values[node];
+    }
+
+    /**
+     * 键最小的结点，树为空时返回NIL。
+     */
+    public int findMin() {
+        return root == NIL ? NIL : findMin(root);
+    }
+
+    /**
+     * 键最大的结点，树为空时返回NIL。
+     */
+    public int findMax() {
+        return root == NIL ? NIL : findMax(root);
+    }
+
+    /**
+     * 以node为根的子树中键最小的结点。
+     */
+    public int findMin(int node) {
+        while (left[node] != NIL) {
+            node = left[node];
+        }
+        return node;
+    }
+
+    /**
+     * 以node为根的子树中键最大的结点。
+     */
+    public int findMax(int node) {
+        while (right[node] != NIL) {
+            node = right[node];
+        }
+        return node;
+    }
+
+    /**
+     * node结点的前驱，规则同RedBlackTree.findPredecessor，没有前驱时返回NIL。
+     */
+    public int findPredecessor(int node) {
+        if (node == NIL) {
+            return NIL;
+        }
+        if (left[node] != NIL) {
+            return findMax(left[node]);
+        }
+        int p = parent[node];
+        while (p != NIL && node == left[p]) {
+            node = p;
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * node结点的后继，规则同RedBlackTree.findSuccessor，没有后继时返回NIL。
+     */
+    public int findSuccessor(int node) {
+        if (node == NIL) {
+            return NIL;
+        }
+        if (right[node] != NIL) {
+            return findMin(right[node]);
+        }
+        int p = parent[node];
+        while (p != NIL && node == right[p]) {
+            node = p;
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * 按从小到大的顺序返回所有键。
+     */
+    public int[] keys() {
+        int[] res = new int[size];
+        int i = 0;
+        for (int node = findMin(); node != NIL; node = findSuccessor(node)) {
+            res[i++] = keys[node];
+        }
+        return res;
+    }
+
+    /**
+     * 二叉树中序遍历：left ---> root ---> right。
+     */
+    public void inorderTraversal() {
+        System.out.print("inorder: ");
+        for (int node = findMin(); node != NIL; node = findSuccessor(node)) {
+            System.out.print(keys[node] + "," + (isRed(node) ? "r" : "b") + " ");
+        }
+        System.out.println();
+    }
+
+    private boolean insert(int key, int value, boolean has_value) {
+        int cur = root;
+        int p = NIL;
+        boolean at_left = false;
+        while (cur != NIL) {
+            int cur_key = keys[cur];
+            if (key == cur_key) {
+                if (has_value) {
+                    setValue(cur, value);
+                }
+                return false;
+            }
+            p = cur;
+            at_left = key < cur_key;
+            cur = at_left ? left[cur] : right[cur];
+        }
+        int node = allocate();
+        keys[node] = key;
+        if (has_value) {
+            setValue(node, value);
+        } else if (values != null) {
+            values[node] = 0;
+        }
+        left[node] = NIL;
+        right[node] = NIL;
+        parent[node] = p;
+        setRed(node);
+        if (p == NIL) {
+            root = node;
+        } else if (at_left) {
+            left[p] = node;
+        } else {
+            right[p] = node;
+        }
+        size++;
+        insertFixUp(node);
+        return true;
+    }
+
+    /**
+     * 插入结点后进行修正，情形见RedBlackTree.insertFixUp。
+     */
+    private void insertFixUp(int node) {
+        while (isRed(parent[node])) { // 父结点是红色的，则一定有祖父结点。
+            int p = parent[node];
+            int grandparent = parent[p];
+            if (p == left[grandparent]) {
+                int uncle = right[grandparent];
+                if (isRed(uncle)) {
+                    setBlack(p);
+                    setBlack(uncle);
+                    setRed(grandparent);
+                    node = grandparent;
+                    continue;
+                }
+                if (node == right[p]) {
+                    node = p;
+                    leftRotate(node);
+                    p = parent[node];
+                }
+                setBlack(p);
+                setRed(grandparent);
+                rightRotate(grandparent);
+            } else {
+                int uncle = left[grandparent];
+                if (isRed(uncle)) {
+                    setBlack(p);
+                    setBlack(uncle);
+                    setRed(grandparent);
+                    node = grandparent;
+                    continue;
+                }
+                if (node == left[p]) {
+                    node = p;
+                    rightRotate(node);
+                    p = parent[node];
+                }
+                setBlack(p);
+                setRed(grandparent);
+                leftRotate(grandparent);
+            }
+        }
+        setBlack(root);
+    }
+
+    /**
+     * 删除键。
+     * 被删除结点有两个孩子时，用其后继结点替换它的位置（而不是复制键），其余结点的下标保持不变。
+     * @param key 被删除的键。
+     * @return 如果键存在则删除并返回true；否则返回false。
+     */
+    public boolean delete(int key) {
+        int delete_node = find(key);
+        if (delete_node == NIL) {
+            return false;
+        }
+        int fix_node; // 替换被删除结点的位置、可能缺少一个黑色的结点，可能是NIL。
+        boolean removed_red = isRed(delete_node);
+        if (left[delete_node] == NIL) {
+            fix_node = right[delete_node];
+            transplant(delete_node, fix_node);
+        } else if (right[delete_node] == NIL) {
+            fix_node = left[delete_node];
+            transplant(delete_node, fix_node);
+        } else {
+            int replace_node = findMin(right[delete_node]); // 后继结点没有左子树。
+            removed_red = isRed(replace_node);
+            fix_node = right[replace_node];
+            if (parent[replace_node] == delete_node) {
+                parent[fix_node] = replace_node; // fix_node为NIL时，修正需要从哨兵找到父结点。
+            } else {
+                transplant(replace_node, fix_node);
+                right[replace_node] = right[delete_node];
+                parent[right[replace_node]] = replace_node;
+            }
+            transplant(delete_node, replace_node);
+            left[replace_node] = left[delete_node];
+            parent[left[replace_node]] = replace_node;
+            setColor(replace_node, isRed(delete_node));
+        }
+        if (!removed_red) {
+            deleteFixUp(fix_node); // 删除了一个黑色结点，会破坏性质2，4或5。
+        }
+        release(delete_node);
+        return true;
+    }
+
+    /**
+     * 删除结点后进行修正，情形见RedBlackTree.deleteFixUp。
+     */
+    private void deleteFixUp(int node) {
+        while (node != root && !isRed(node)) {
+            int p = parent[node];
+            if (node == left[p]) {
+                int brother = right[p];
+                if (isRed(brother)) { // 情形(5)。
+                    setBlack(brother);
+                    setRed(p);
+                    leftRotate(p);
+                    brother = right[p];
+                }
+                if (!isRed(left[brother]) && !isRed(right[brother])) { // 情形(1)和(2)。
+                    setRed(brother);
+                    node = p;
+                    continue;
+                }
+                if (!isRed(right[brother])) { // 情形(4)。
+                    setBlack(left[brother]);
+                    setRed(brother);
+                    rightRotate(brother);
+                    brother = right[p];
+                }
+                setColor(brother, isRed(p)); // 情形(3)。
+                setBlack(p);
+                setBlack(right[brother]);
+                leftRotate(p);
+            } else {
+                int brother = left[p];
+                if (isRed(brother)) {
+                    setBlack(brother);
+                    setRed(p);
+                    rightRotate(p);
+                    brother = left[p];
+                }
+                if (!isRed(left[brother]) && !isRed(right[brother])) {
+                    setRed(brother);
+                    node = p;
+                    continue;
+                }
+                if (!isRed(left[brother])) {
+                    setBlack(right[brother]);
+                    setRed(brother);
+                    leftRotate(brother);
+                    brother = left[p];
+                }
+                setColor(brother, isRed(p));
+                setBlack(p);
+                setBlack(left[brother]);
+                rightRotate(p);
+            }
+            node = root;
+        }
+        setBlack(node);
+    }
+
+    /**
+     * 用以replace为根的子树替换以node为根的子树。replace为NIL时也设置其父结点，供删除后的修正使用。
+     */
+    private void transplant(int node, int replace) {
+        int p = parent[node];
+        if (p == NIL) {
+            root = replace;
+        } else if (node == left[p]) {
+            left[p] = replace;
+        } else {
+            right[p] = replace;
+        }
+        parent[replace] = p;
+    }
+
+    /**
+     * 左旋，见RedBlackTree.leftRotate。
+     */
+    private void leftRotate(int node) {
+        int replace_node = right[node];
+        right[node] = left[replace_node];
+        if (left[replace_node] != NIL) {
+            parent[left[replace_node]] = node;
+        }
+        int p = parent[node];
+        parent[replace_node] = p;
+        if (p == NIL) {
+            root = replace_node;
+        } else if (node == left[p]) {
+            left[p] = replace_node;
+        } else {
+            right[p] = replace_node;
+        }
+        left[replace_node] = node;
+        parent[node] = replace_node;
+    }
+
+    /**
+     * 右旋，见RedBlackTree.rightRotate。
+     */
+    private void rightRotate(int node) {
+        int replace_node = left[node];
+        left[node] = right[replace_node];
+        if (right[replace_node] != NIL) {
+            parent[right[replace_node]] = node;
+        }
+        int p = parent[node];
+        parent[replace_node] = p;
+        if (p == NIL) {
+            root = replace_node;
+        } else if (node == right[p]) {
+            right[p] = replace_node;
+        } else {
+            left[p] = replace_node;
+        }
+        right[replace_node] = node;
+        parent[node] = replace_node;
+    }
+
+    /**
+     * 分配一个结点，优先从空闲链表中取。
+     */
+    private int allocate() {
+        if (free != NIL) {
+            int node = free;
+            free = left[node];
+            return node;
+        }
+        if (next == keys.length) {
+            grow();
+        }
+        return next++;
+    }
+
+    /**
+     * 回收结点，放入空闲链表。
+     */
+    private void release(int node) {
+        left[node] = free;
+        free = node;
+        size--;
+    }
+
+    private void grow() {
+        int len = keys.length;
+        if (len == Integer.MAX_VALUE) throw new IllegalStateException("Tree is full.");
+        int new_len = (int) Math.min(Integer.MAX_VALUE, len + (len >> 1) + 1L);
+        keys = Arrays.copyOf(keys, new_len);
+        if (values != null) {
+            values = Arrays.copyOf(values, new_len);
+        }
+        left = Arrays.copyOf(left, new_len);
+        right = Arrays.copyOf(right, new_len);
+        parent = Arrays.copyOf(parent, new_len);
+        colors = Arrays.copyOf(colors, (new_len + 63) >>> 6);
+    }
+
+    private void setValue(int node, int value) {
+        if (values == null) {
+            values = new int[keys.length];
+        }
+        values[node] = value;
+    }
+
+    private boolean isRed(int node) {
+        return (colors[node >>> 6] & 1L << node) != 0;
+    }
+
+    private void setRed(int node) {
+        colors[node >>> 6] |= 1L << node;
+    }
+
+    private void setBlack(int node) {
+        colors[node >>> 6] &= ~(1L << node);
+    }
+
+    private void setColor(int node, boolean red) {
+        if (red) {
+            setRed(node);
+        } else {
+            setBlack(node);
+        }
+    }
+}
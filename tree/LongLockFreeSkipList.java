@@ -0,0 +1,398 @@
+package cn.ning.algorithm.tree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基本类型键的无锁跳表（long）。
+ * 加锁的平衡树在写多的场景下，插入、删除后的修正（RedBlackTree.insertFixUp、BalancedBinaryTree.insertBalance）
+ * 需要持有锁，成为瓶颈。跳表没有全局的平衡操作，每个结点的层数在插入前随机决定（每层的概率为1/2），
+ * 插入和删除只修改相邻结点的指针，可以全部用CAS完成（Herlihy & Shavit, The Art of Multiprocessor Programming，
+ * 第14章）：
+ *     1. 插入：找到每层的前驱和后继，先用CAS把新结点链接到第0层，成功后结点即在跳表中；再自下而上逐层链接。
+ *     2. 删除：自上而下在结点的每一层后面插入一个标记结点（marker），第0层的标记插入成功时删除生效；
+ *        之后结点的next不会再被修改，在它后面插入的CAS都会失败。
+ *     3. 插入、删除在查找时顺便把已标记的结点从链表中摘除（CAS前驱的next），某个线程的CAS失败时从头重试。
+ *     4. 查找、前驱、后继不修改跳表，遇到已标记的结点直接跳过。
+ * Java没有带标记位的指针，因此用标记结点代替（同java.util.concurrent.ConcurrentSkipListMap）：
+ * 标记结点的next[0]是被删除结点在标记时的后继。
+ *
+ * 与LongRedBlackTree不同，结点是对象而不是数组下标，被删除的结点由垃圾回收器回收；键直接保存为long，
+ * 查找时没有装箱和compareTo虚调用。
+ * 线程安全，所有操作都是无锁的；size()是近似值。
+ */
+public class LongLockFreeSkipList {
+    private static final int MAX_LEVEL = 32;
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+    private static final VarHandle LEVEL;
+
+    static {
+        try {
+            LEVEL = MethodHandles.lookup().findVarHandle(LongLockFreeSkipList.class, "level", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static final class Node {
+        final long key;
+        final Node[] next; // next[i]是第i层的后继，null表示表尾。
+        final boolean marker;
+
+        Node(long key, int level) {
+            this.key = key;
+            this.next = new Node[level];
+            this.marker = false;
+        }
+
+        /**
+         * 标记结点，successor是被删除结点的后继。
+         */
+        Node(Node successor) {
+            this.key = 0;
+            this.next = new Node[] {successor};
+            this.marker = true;
+        }
+
+        Node next(int level) {
+            return (Node) NEXT.getAcquire(next, level);
+        }
+
+        boolean casNext(int level, Node expect, Node update) {
+            return NEXT.compareAndSet(next, level, expect, update);
+        }
+
+        /**
+         * 结点在level层是否已被删除。
+         */
+        boolean isMarked(int level) {
+            Node succ = next(level);
+            return succ != null && succ.marker;
+        }
+    }
+
+    private final Node head = new Node(Long.MIN_VALUE, MAX_LEVEL); // 头结点，键不参与比较。
+    private volatile int level = 1; // 出现过的最高层数，查找从这一层开始，只增不减。
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * 元素个数。有并发修改时是近似值。
+     */
+    public int size() {
+        long n = size.sum();
+        return n < 0 ? 0 : (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return findFirst() == null;
+    }
+
+    /**
+     * 构建跳表。
+     * @param order 被构建序列。
+     */
+    public void build(long[] order) {
+        for (long item : order) {
+            if (!insert(item)) {
+                System.out.println(item + "已经存在。");
+            }
+        }
+    }
+
+    /**
+     * 查找key，对应树中的find。不修改跳表，已标记的结点视为不存在。
+     */
+    public boolean contains(long key) {
+        Node node = findNext(key, true);
+        return node != null && node.key == key;
+    }
+
+    /**
+     * 插入key。
+     * @return key已经存在时返回false。
+     */
+    public boolean insert(long key) {
+        int top = randomLevel();
+        raiseLevel(top);
+        Node[] preds = new Node[top];
+        Node[] succs = new Node[top];
+        while (true) {
+            if (find(key, preds, succs)) {
+                return false;
+            }
+            Node node = new Node(key, top);
+            for (int i = 0; i < top; i++) {
+                node.next[i] = succs[i];
+            }
+            if (!preds[0].casNext(0, succs[0], node)) {
+                continue; // 前驱已被删除或有新结点插入到前驱后面。
+            }
+            size.increment();
+            linkUpperLevels(key, node, preds, succs);
+            return true;
+        }
+    }
+
+    /**
+     * 第0层链接成功后，逐层链接node的第1层到最高层。node在此期间被删除时停止。
+     */
+    private void linkUpperLevels(long key, Node node, Node[] preds, Node[] succs) {
+        for (int i = 1; i < node.next.length; i++) {
+            while (true) {
+                Node next = node.next(i);
+                if (next != null && next.marker) {
+                    return; // node已被删除，删除它的线程会标记所有层，不再需要链接。
+                }
+                if (next != succs[i] && !node.casNext(i, next, succs[i])) {
+                    continue;
+                }
+                if (preds[i].casNext(i, succs[i], node)) {
+                    break;
+                }
+                find(key, preds, succs); // 前驱或后继已经变化，重新查找。
+                if (succs[0] != node) {
+                    return; // node已被删除并从第0层摘除。
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除key。
+     * @return key不存在时返回false。
+     */
+    public boolean delete(long key) {
+        Node[] preds = new Node[1]; // 只需要第0层的后继。
+        Node[] succs = new Node[1];
+        if (!find(key, preds, succs)) {
+            return false;
+        }
+        Node victim = succs[0];
+        for (int i = victim.next.length - 1; i > 0; i--) {
+            mark(victim, i);
+        }
+        if (!mark(victim, 0)) {
+            return false; // 其他线程先删除了该结点。
+        }
+        size.decrement();
+        find(key, preds, succs); // 把victim从各层摘除。
+        return true;
+    }
+
+    /**
+     * 在node的level层后面插入标记结点。
+     * @return 由本线程标记时返回true，已经被标记时返回false。
+     */
+    private static boolean mark(Node node, int level) {
+        while (true) {
+            Node succ = node.next(level);
+            if (succ != null && succ.marker) {
+                return false;
+            }
+            if (node.casNext(level, succ, new Node(succ))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 查找key在每一层的前驱（键小于key的最后一个结点）和后继，同时摘除遇到的已标记的结点。
+     * 只填充preds.length层。
+     * @return 第0层的后继的键等于key时返回true。
+     */
+    private boolean find(long key, Node[] preds, Node[] succs) {
+        retry:
+        while (true) {
+            Node pred = head;
+            Node curr = null;
+            for (int i = Math.max(level, preds.length) - 1; i >= 0; i--) {
+                curr = pred.next(i);
+                if (curr != null && curr.marker) {
+                    continue retry; // pred已被删除。
+                }
+                while (curr != null) {
+                    Node succ = curr.next(i);
+                    if (succ != null && succ.marker) {
+                        // curr已被删除，从该层摘除。
+                        if (!pred.casNext(i, curr, succ.next[0])) {
+                            continue retry;
+                        }
+                        curr = pred.next(i);
+                        if (curr != null && curr.marker) {
+                            continue retry;
+                        }
+                    } else if (curr.key < key) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < preds.length) {
+                    preds[i] = pred;
+                    succs[i] = curr;
+                }
+            }
+            return curr != null && curr.key == key;
+        }
+    }
+
+    /**
+     * 最小的键，对应树中的findMin。
+     * @param default_value 跳表为空时的返回值。
+     */
+    public long findMin(long default_value) {
+        Node node = findFirst();
+        return node == null ? default_value : node.key;
+    }
+
+    /**
+     * 最大的键，对应树中的findMax。
+     * @param default_value 跳表为空时的返回值。
+     */
+    public long findMax(long default_value) {
+        Node node = findLast(Long.MAX_VALUE, true);
+        return node == null ? default_value : node.key;
+    }
+
+    /**
+     * 小于key的最大的键。key不必在跳表中。
+     * @param default_value 没有前驱时的返回值。
+     */
+    public long findPredecessor(long key, long default_value) {
+        Node node = findLast(key, false);
+        return node == null ? default_value : node.key;
+    }
+
+    /**
+     * 大于key的最小的键。key不必在跳表中。
+     * @param default_value 没有后继时的返回值。
+     */
+    public long findSuccessor(long key, long default_value) {
+        Node node = findNext(key, false);
+        return node == null ? default_value : node.key;
+    }
+
+    /**
+     * 第一个没有被删除的结点。
+     */
+    private Node findFirst() {
+        Node curr = strip(head.next(0));
+        while (curr != null) {
+            Node succ = curr.next(0);
+            if (succ == null || !succ.marker) {
+                return curr;
+            }
+            curr = succ.next[0];
+        }
+        return null;
+    }
+
+    /**
+     * 键大于key（inclusive为true时不小于key）的第一个没有被删除的结点。
+     */
+    private Node findNext(long key, boolean inclusive) {
+        Node pred = head;
+        Node curr = null;
+        for (int i = level - 1; i >= 0; i--) {
+            curr = strip(pred.next(i));
+            while (curr != null) {
+                Node succ = curr.next(i);
+                if (succ != null && succ.marker) {
+                    curr = succ.next[0]; // curr已被删除，跳过。
+                } else if (curr.key < key || !inclusive && curr.key == key) {
+                    pred = curr;
+                    curr = succ;
+                } else {
+                    break;
+                }
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * 键小于key（inclusive为true时不大于key）的最后一个没有被删除的结点。
+     * 找到的结点可能在返回前被删除，此时重新查找。
+     */
+    private Node findLast(long key, boolean inclusive) {
+        while (true) {
+            Node pred = head;
+            for (int i = level - 1; i >= 0; i--) {
+                Node curr = strip(pred.next(i));
+                while (curr != null) {
+                    Node succ = curr.next(i);
+                    if (succ != null && succ.marker) {
+                        curr = succ.next[0];
+                    } else if (curr.key < key || inclusive && curr.key == key) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            if (pred == head) {
+                return null;
+            }
+            if (!pred.isMarked(0)) {
+                return pred;
+            }
+        }
+    }
+
+    /**
+     * 按从小到大的顺序返回所有键。有并发修改时不保证是某一时刻的快照。
+     */
+    public long[] keys() {
+        long[] res = new long[Math.max(16, size())];
+        int n = 0;
+        for (Node curr = findFirst(); curr != null; ) {
+            if (n == res.length) {
+                res = Arrays.copyOf(res, n + (n >> 1));
+            }
+            res[n++] = curr.key;
+            curr = strip(curr.next(0));
+            while (curr != null && curr.isMarked(0)) {
+                curr = curr.next(0).next[0];
+            }
+        }
+        return Arrays.copyOf(res, n);
+    }
+
+    /**
+     * 删除所有元素。有并发插入时，清空后跳表中可能还有元素。
+     */
+    public void clear() {
+        for (Node node = findFirst(); node != null; node = findFirst()) {
+            delete(node.key);
+        }
+    }
+
+    /**
+     * 标记结点换成它指向的结点。
+     */
+    private static Node strip(Node node) {
+        return node != null && node.marker ? node.next[0] : node;
+    }
+
+    /**
+     * 随机层数，取值1到MAX_LEVEL，层数为k的概率是1 / 2^k。
+     */
+    private static int randomLevel() {
+        int random = ThreadLocalRandom.current().nextInt();
+        return Integer.numberOfTrailingZeros(~random | (1 << (MAX_LEVEL - 1))) + 1;
+    }
+
+    private void raiseLevel(int top) {
+        int current;
+        while ((current = level) < top) {
+            if (LEVEL.compareAndSet(this, current, top)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package cn.ning.algorithm.tree;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 有序映射基准测试
+ * 对本包中的NavigableMap实现和java.util.TreeMap在相同的键上进行对比测试，输出每次操作耗时（ns/op）
+ * 以及内存分配速率（MB/s）。
+ *
+ * 用法：java cn.ning.algorithm.tree.MapBenchmark [规模列表] [操作列表] [映射列表]
+ *      例如：java cn.ning.algorithm.tree.MapBenchmark 1000,1000000 put,get treeMap,redBlackTreeMap
+ *      不指定参数时，规模为1K到1M，测试所有操作和所有映射。
+ *      预热次数、测量次数和单次测量的最短时间可以通过系统属性bench.warmup、bench.iterations和
+ *      bench.minNanos调整。
+ *      同一进程中先测试的映射在JIT类型剖面上占优（调用点还是单态的），差距较小时应调换顺序或分别运行。
+ *
+ * 操作：
+ *     put     向空映射中插入n个随机顺序的键；
+ *     get     在n个键的映射中查找n个存在的键；
+ *     floor   在n个键的映射中对n个随机值调用floorEntry，约一半不存在；
+ *     range   在n个键的映射中取n / RANGE_LENGTH个长度为RANGE_LENGTH的subMap并遍历；
+ *     remove  从n个键的映射中按随机顺序删除所有键（建树的时间不计入结果）。
+ */
+public class MapBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int RANGE_LENGTH = 100; // range操作每次遍历的键数。
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("bench.warmup", 3); // 预热次数。
+    private static final int MEASURE_ITERATIONS = Integer.getInteger("bench.iterations", 5); // 测量次数。
+    private static final long MIN_MEASURE_NANOS = Long.getLong("bench.minNanos", 200_000_000L); // 单次测量的最短时间。
+
+    static volatile long sink; // 防止测试结果被JIT消除。
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : DEFAULT_SIZES;
+        Operation[] operations = args.length > 1 ? parseOperations(args[1]) : Operation.values();
+        Map<String, Supplier<NavigableMap<Integer, Integer>>> maps = maps();
+        if (args.length > 2) {
+            Map<String, Supplier<NavigableMap<Integer, Integer>>> selected = new LinkedHashMap<>();
+            for (String name : args[2].split(",")) {
+                Supplier<NavigableMap<Integer, Integer>> map = maps.get(name);
+                if (map == null) {
+                    throw new IllegalArgumentException("unknown map: " + name);
+                }
+                selected.put(name, map);
+            }
+            maps = selected;
+        }
+
+        System.out.printf("%-16s %-8s %10s %12s %12s%n", "map", "op", "size", "ns/op", "alloc MB/s");
+        for (int size : sizes) {
+            Integer[] keys = shuffledKeys(size, new Random(42));
+            Integer[] probes = new Integer[size];
+            Random random = new Random(7);
+            for (int i = 0; i < size; i++) {
+                probes[i] = random.nextInt(2 * size); // 键是0, 2, 4, ...，奇数不存在。
+            }
+            for (Operation operation : operations) {
+                for (Map.Entry<String, Supplier<NavigableMap<Integer, Integer>>> entry : maps.entrySet()) {
+                    double[] res = measure(entry.getValue(), operation, keys, probes);
+                    System.out.printf("%-16s %-8s %10d %12.1f %12.1f%n", entry.getKey(),
+                            operation.name().toLowerCase(), size, res[0], res[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 参与测试的映射。
+     */
+    static Map<String, Supplier<NavigableMap<Integer, Integer>>> maps() {
+        Map<String, Supplier<NavigableMap<Integer, Integer>>> maps = new LinkedHashMap<>();
+        maps.put("treeMap", TreeMap::new);
+        maps.put("redBlackTreeMap", RedBlackTreeMap::new);
+        return maps;
+    }
+
+    /**
+     * 测试的操作。
+     */
+    enum Operation {
+        PUT, GET, FLOOR, RANGE, REMOVE;
+
+        /**
+         * 执行一次操作，返回操作次数。
+         */
+        long run(NavigableMap<Integer, Integer> map, Integer[] keys, Integer[] probes) {
+            long sum = 0;
+            switch (this) {
+                case PUT:
+                    for (Integer key : keys) {
+                        map.put(key, key);
+                    }
+                    sum = map.size();
+                    break;
+                case GET:
+                    for (Integer key : keys) {
+                        sum += map.get(key);
+                    }
+                    break;
+                case FLOOR:
+                    for (Integer probe : probes) {
+                        Map.Entry<Integer, Integer> e = map.floorEntry(probe);
+                        sum += e == null ? 0 : e.getValue();
+                    }
+                    break;
+                case RANGE:
+                    for (int i = 0; i < keys.length / RANGE_LENGTH; i++) {
+                        int from = probes[i];
+                        for (Integer value : map.subMap(from, true, from + 2 * RANGE_LENGTH, false).values()) {
+                            sum += value;
+                        }
+                    }
+                    break;
+                default:
+                    for (Integer key : keys) {
+                        sum += map.remove(key);
+                    }
+            }
+            sink = sum;
+            return this == RANGE ? Math.max(1, keys.length / RANGE_LENGTH) : keys.length;
+        }
+
+        /** 操作前映射中是否需要已有全部键。 */
+        boolean needsFilledMap() {
+            return this != PUT;
+        }
+
+        /** 操作是否会修改映射，修改时每次测量都要重新建立映射。 */
+        boolean mutates() {
+            return this == PUT || this == REMOVE;
+        }
+    }
+
+    /**
+     * 对一个映射的一种操作进行预热和测量，返回{ns/op, alloc MB/s}。建立映射的时间和内存不计入结果。
+     */
+    static double[] measure(Supplier<NavigableMap<Integer, Integer>> factory, Operation operation,
+                            Integer[] keys, Integer[] probes) {
+        NavigableMap<Integer, Integer> shared = operation.mutates() ? null : fill(factory.get(), keys);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run(prepare(factory, operation, keys, shared), keys, probes);
+        }
+
+        double best_nanos = Double.MAX_VALUE;
+        double best_alloc = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            long elapsed = 0;
+            long allocated = 0;
+            long ops = 0;
+            while (elapsed < MIN_MEASURE_NANOS || ops == 0) {
+                NavigableMap<Integer, Integer> map = prepare(factory, operation, keys, shared);
+                long bytes = allocatedBytes();
+                long start = System.nanoTime();
+                ops += operation.run(map, keys, probes);
+                elapsed += System.nanoTime() - start;
+                allocated += allocatedBytes() - bytes;
+            }
+            double nanos_per_op = (double) elapsed / ops;
+            if (nanos_per_op < best_nanos) {
+                best_nanos = nanos_per_op;
+                best_alloc = allocated * 1e9 / elapsed / (1024 * 1024);
+            }
+        }
+        return new double[] {best_nanos, best_alloc};
+    }
+
+    private static NavigableMap<Integer, Integer> prepare(Supplier<NavigableMap<Integer, Integer>> factory,
+                                                          Operation operation, Integer[] keys,
+                                                          NavigableMap<Integer, Integer> shared) {
+        if (shared != null) {
+            return shared;
+        }
+        NavigableMap<Integer, Integer> map = factory.get();
+        return operation.needsFilledMap() ? fill(map, keys) : map;
+    }
+
+    private static NavigableMap<Integer, Integer> fill(NavigableMap<Integer, Integer> map, Integer[] keys) {
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    /**
+     * 0, 2, 4, ..., 2(n - 1)的随机排列。
+     */
+    private static Integer[] shuffledKeys(int n, Random random) {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2 * i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+        return keys;
+    }
+
+    /**
+     * 当前线程已分配的字节数，JVM不支持时返回0。
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static int[] parseSizes(String arg) {
+        String[] parts = arg.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim().replace("_", ""));
+        }
+        return sizes;
+    }
+
+    private static Operation[] parseOperations(String arg) {
+        String[] parts = arg.split(",");
+        Operation[] operations = new Operation[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            operations[i] = Operation.valueOf(parts[i].trim().toUpperCase());
+        }
+        return operations;
+    }
+}
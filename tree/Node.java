@@ -18,6 +18,7 @@ public class Node <T> {
     public Node<T> right = null;
     public T val = null;
     public int height; // 自平衡二叉树，树的高度。
+    public int size = 1; // 顺序统计，以该结点为根的子树的结点数。
     public Node() {}
     public Node(T val) {
         this.val = val;
@@ -65,6 +65,7 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
             parent.left = cur;
         }
         cur.parent = parent;
+        addSize(parent, 1);
         insertFixUp(cur);
         return true;
     }
@@ -143,6 +144,16 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
         if (delete_node == null) {
             return false;
         }
+        deleteNode(delete_node);
+        return true;
+    }
+
+    /**
+     * 删除结点。
+     * 被删除结点有两个孩子时，将其前驱结点的内容移动到该结点中（见moveContent），然后删除前驱结点。
+     * @param delete_node 被删除的结点。
+     */
+    protected void deleteNode(Node<T> delete_node) {
         Node<T> fix_node = null;
         // fix_parent 和 at_left 在 fix_node 为null时会用到。
         Node<T> fix_parent = null; //
@@ -152,7 +163,7 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
         if (delete_node.left == null && delete_node.right == null) {
             if (delete_node.parent == null) {
                 this.setRoot(null);
-                return true;
+                return;
             } else if (delete_node == delete_node.parent.left) {
                 delete_node.parent.left = null;
                 at_left = true;
@@ -163,10 +174,11 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
             delete_color = delete_node.color;
             fix_node = null;
             fix_parent = delete_node.parent;
+            addSize(fix_parent, -1);
 
         } else if (delete_node.left != null && delete_node.right != null) {
             Node<T> replace_node = this.findPredecessor(delete_node); // 前驱结点没有右子树。
-            delete_node.val = replace_node.val;
+            moveContent(replace_node, delete_node);
             if (replace_node == replace_node.parent.left) {
                 replace_node.parent.left = replace_node.left;
                 at_left = true;
@@ -182,6 +194,7 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
             }
             delete_color = replace_node.color;
             fix_parent = replace_node.parent;
+            addSize(fix_parent, -1);
         } else if (delete_node.left != null) {
             if (delete_node.parent == null) {
                 this.setRoot(delete_node.left);
@@ -193,6 +206,7 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
             delete_node.left.parent = delete_node.parent;
             fix_node = delete_node.left;
             delete_color = delete_node.color;
+            addSize(delete_node.parent, -1);
         } else {
             if (delete_node.parent == null) {
                 this.setRoot(delete_node.right);
@@ -204,11 +218,18 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
             delete_node.right.parent = delete_node.parent;
             fix_node = delete_node.right;
             delete_color = delete_node.color;
+            addSize(delete_node.parent, -1);
         }
         if (delete_color == Node.Color.black) {
             deleteFixUp(fix_node, at_left, fix_parent); // 由于删除了一个黑色结点，会破坏性质2，4或5。
         }
-        return true;
+    }
+
+    /**
+     * 将结点from的内容移动到结点to中，删除有两个孩子的结点时使用。结点中有其他数据时，子类需要重写该方法。
+     */
+    protected void moveContent(Node<T> from, Node<T> to) {
+        to.val = from.val;
     }
 
     /**
@@ -358,6 +379,9 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
         replace_node.left = node;
         replace_node.left.parent = replace_node;
 
+        replace_node.size = node.size; // 旋转后子树的结点数不变。
+        node.size = getSize(node.left) + getSize(node.right) + 1;
+
         if (parent == null) {
             this.setRoot(replace_node);
         } else {
@@ -398,6 +422,9 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
         replace_node.right = node;
         replace_node.right.parent = replace_node;
 
+        replace_node.size = node.size;
+        node.size = getSize(node.left) + getSize(node.right) + 1;
+
         if (parent == null) {
             this.setRoot(replace_node);
         } else {
@@ -410,6 +437,100 @@ public class RedBlackTree<T extends Comparable<T>> extends Tree<T> {
         }
     }
 
+    /**
+     * 结点数。
+     */
+    public int size() {
+        return getSize(this.getRoot());
+    }
+
+    /**
+     * 以node为根的子树的结点数。
+     */
+    public int getSize(Node<T> node) {
+        if (node == null) {
+            return 0;
+        }
+        return node.size;
+    }
+
+    /**
+     * 从node开始到根结点路径上的每个结点的子树结点数加上delta，插入和删除结点时使用。
+     */
+    protected void addSize(Node<T> node, int delta) {
+        while (node != null) {
+            node.size += delta;
+            node = node.parent;
+        }
+    }
+
+    /**
+     * 顺序统计：查找第k小的结点（k从0开始）。
+     * 原理：设当前结点左子树的结点数为left_size，k < left_size时到左子树中查找；k == left_size时当前结点
+     *      即为所求；否则到右子树中查找第k - left_size - 1小的结点。
+     * 时间复杂度：O(logn)。
+     * @param k 序号。
+     * @return 第k小的结点，k超出范围时返回null。
+     */
+    public Node<T> select(int k) {
+        Node<T> cur = this.getRoot();
+        if (k < 0 || k >= getSize(cur)) {
+            return null;
+        }
+        while (cur != null) {
+            int left_size = getSize(cur.left);
+            if (k < left_size) {
+                cur = cur.left;
+            } else if (k == left_size) {
+                return cur;
+            } else {
+                k -= left_size + 1;
+                cur = cur.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 顺序统计：小于val的结点数，val不必在树中。val在树中时即为select(k)的逆运算。
+     * 时间复杂度：O(logn)。
+     */
+    public int rank(T val) {
+        return rank(val, false);
+    }
+
+    /**
+     * 顺序统计：值在[lo, hi]中的结点数。
+     * 时间复杂度：O(logn)。
+     */
+    public int countInRange(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return rank(hi, true) - rank(lo, false);
+    }
+
+    /**
+     * 小于val（inclusive为true时小于等于val）的结点数：自根向下查找val，每次向右走时累加左子树的结点数加1。
+     */
+    protected int rank(T val, boolean inclusive) {
+        int res = 0;
+        Node<T> cur = this.getRoot();
+        while (cur != null) {
+            int compare_res = val.compareTo(cur.val);
+            if (compare_res == 0) {
+                return res + getSize(cur.left) + (inclusive ? 1 : 0);
+            }
+            if (compare_res > 0) {
+                res += getSize(cur.left) + 1;
+                cur = cur.right;
+            } else {
+                cur = cur.left;
+            }
+        }
+        return res;
+    }
+
     /**
      * 查找。
      * @param val 待查找元素的键。
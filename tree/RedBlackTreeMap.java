@@ -0,0 +1,1116 @@
+package cn.ning.algorithm.tree;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * 基于红黑树的有序映射。
+ * 在RedBlackTree的基础上，每个结点（Entry）同时保存键和值，实现NavigableMap，可以直接替换java.util.TreeMap。
+ * 插入后的修正以及删除直接使用RedBlackTree的insertFixUp、deleteNode和deleteFixUp。
+ * floor、ceiling、lower和higher在一次自顶向下的查找中完成；headMap、tailMap、subMap和descendingMap返回的
+ * 都是视图，对视图的修改会反映到映射中，遍历时从区间的第一个结点开始依次取后继（或前驱）结点，不会先构建列表。
+ * 键按自然顺序排序，不能为null。
+ * 时间复杂度：查找、插入、删除以及视图的size()为O(logn)；遍历k个元素O(k + logn)。
+ * 不是线程安全的。迭代过程中如果不是通过迭代器自身修改了映射，迭代器会抛出ConcurrentModificationException。
+ */
+public class RedBlackTreeMap<K extends Comparable<K>, V> extends RedBlackTree<K> implements NavigableMap<K, V> {
+
+    /**
+     * 红黑树结点，在Node的基础上增加值。键保存在val中。
+     */
+    static final class EntryNode<K, V> extends Node<K> implements Map.Entry<K, V> {
+        V value;
+
+        EntryNode(K key, V value) {
+            super(key);
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return val;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old_value = this.value;
+            this.value = value;
+            return old_value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(val, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(val) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return val + "=" + value;
+        }
+    }
+
+    private int mod_count = 0; // 结构修改次数，用于迭代器检测并发修改。
+    private final View full = new View(true, null, true, true, null, true, false); // 整个映射的视图。
+
+    public RedBlackTreeMap() {}
+
+    public RedBlackTreeMap(Map<? extends K, ? extends V> m) {
+        putAll(m);
+    }
+
+    /**
+     * 插入键，值为null。
+     * @param key 被插入的键。
+     * @return 键已经存在时返回false。
+     */
+    @Override
+    public boolean insert(K key) {
+        if (getEntry(key) != null) {
+            return false;
+        }
+        put(key, null);
+        return true;
+    }
+
+    /**
+     * 删除键。
+     * @param key 被删除的键。
+     * @return 键不存在时返回false。
+     */
+    @Override
+    public boolean delete(K key) {
+        EntryNode<K, V> e = getEntry(key);
+        if (e == null) {
+            return false;
+        }
+        deleteEntry(e);
+        return true;
+    }
+
+    @Override
+    protected void moveContent(Node<K> from, Node<K> to) {
+        to.val = from.val;
+        entry(to).value = entry(from).value;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getRoot() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getEntry(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Node<K> e = findMin(getRoot()); e != null; e = findSuccessor(e)) {
+            if (Objects.equals(value, entry(e).value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        EntryNode<K, V> e = getEntry(key);
+        return e == null ? null : e.value;
+    }
+
+    /**
+     * 插入键值对：
+     *     1. 将红黑树当做二叉搜索树查找键，找到则替换值；
+     *     2. 否则插入红色结点，再通过insertFixUp进行修正。
+     * @return 原来的值，键不存在时返回null。
+     */
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Node<K> cur = getRoot();
+        if (cur == null) {
+            EntryNode<K, V> e = new EntryNode<>(key, value);
+            e.color = Node.Color.black;
+            setRoot(e);
+            mod_count++;
+            return null;
+        }
+        Node<K> parent = null;
+        int compare_res = 0;
+        while (cur != null) {
+            compare_res = key.compareTo(cur.val);
+            if (compare_res == 0) {
+                return entry(cur).setValue(value);
+            }
+            parent = cur;
+            cur = compare_res > 0 ? cur.right : cur.left;
+        }
+        EntryNode<K, V> e = new EntryNode<>(key, value);
+        e.color = Node.Color.red;
+        if (compare_res > 0) {
+            parent.right = e;
+        } else {
+            parent.left = e;
+        }
+        e.parent = parent;
+        addSize(parent, 1);
+        insertFixUp(e);
+        mod_count++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        EntryNode<K, V> e = getEntry(key);
+        if (e == null) {
+            return null;
+        }
+        V old_value = e.value;
+        deleteEntry(e);
+        return old_value;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        setRoot(null);
+        mod_count++;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public K firstKey() {
+        return key(getFirstEntry());
+    }
+
+    @Override
+    public K lastKey() {
+        return key(getLastEntry());
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return exportEntry(getFirstEntry());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return exportEntry(getLastEntry());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return pollEntry(getFirstEntry());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return pollEntry(getLastEntry());
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return exportEntry(getLowerEntry(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(getLowerEntry(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return exportEntry(getFloorEntry(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(getFloorEntry(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(getCeilingEntry(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(getCeilingEntry(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return exportEntry(getHigherEntry(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(getHigherEntry(key));
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return full.values();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return full.entrySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return full.descendingMap();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K from_key, boolean from_inclusive, K to_key, boolean to_inclusive) {
+        return full.subMap(from_key, from_inclusive, to_key, to_inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K to_key, boolean inclusive) {
+        return full.headMap(to_key, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K from_key, boolean inclusive) {
+        return full.tailMap(from_key, inclusive);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K from_key, K to_key) {
+        return subMap(from_key, true, to_key, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K to_key) {
+        return headMap(to_key, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K from_key) {
+        return tailMap(from_key, true);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || full.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return full.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return full.toString();
+    }
+
+    /**
+     * 查找键所在的结点，不存在时返回null。
+     */
+    @SuppressWarnings("unchecked")
+    EntryNode<K, V> getEntry(Object key) {
+        K k = (K) Objects.requireNonNull(key);
+        Node<K> cur = getRoot();
+        while (cur != null) {
+            int compare_res = k.compareTo(cur.val);
+            if (compare_res == 0) {
+                return entry(cur);
+            }
+            cur = compare_res > 0 ? cur.right : cur.left;
+        }
+        return null;
+    }
+
+    /**
+     * 树中的结点都是EntryNode，集中在这里做类型转换。
+     */
+    @SuppressWarnings("unchecked")
+    EntryNode<K, V> entry(Node<K> node) {
+        return (EntryNode<K, V>) node;
+    }
+
+    EntryNode<K, V> getFirstEntry() {
+        return entry(findMin(getRoot()));
+    }
+
+    EntryNode<K, V> getLastEntry() {
+        return entry(findMax(getRoot()));
+    }
+
+    /**
+     * 大于等于key的最小结点：向左走之前记录当前结点。
+     */
+    EntryNode<K, V> getCeilingEntry(K key) {
+        Node<K> cur = getRoot();
+        Node<K> res = null;
+        while (cur != null) {
+            int compare_res = key.compareTo(cur.val);
+            if (compare_res == 0) {
+                return entry(cur);
+            }
+            if (compare_res < 0) {
+                res = cur;
+                cur = cur.left;
+            } else {
+                cur = cur.right;
+            }
+        }
+        return entry(res);
+    }
+
+    /**
+     * 大于key的最小结点。
+     */
+    EntryNode<K, V> getHigherEntry(K key) {
+        Node<K> cur = getRoot();
+        Node<K> res = null;
+        while (cur != null) {
+            if (key.compareTo(cur.val) < 0) {
+                res = cur;
+                cur = cur.left;
+            } else {
+                cur = cur.right;
+            }
+        }
+        return entry(res);
+    }
+
+    /**
+     * 小于等于key的最大结点：向右走之前记录当前结点。
+     */
+    EntryNode<K, V> getFloorEntry(K key) {
+        Node<K> cur = getRoot();
+        Node<K> res = null;
+        while (cur != null) {
+            int compare_res = key.compareTo(cur.val);
+            if (compare_res == 0) {
+                return entry(cur);
+            }
+            if (compare_res > 0) {
+                res = cur;
+                cur = cur.right;
+            } else {
+                cur = cur.left;
+            }
+        }
+        return entry(res);
+    }
+
+    /**
+     * 小于key的最大结点。
+     */
+    EntryNode<K, V> getLowerEntry(K key) {
+        Node<K> cur = getRoot();
+        Node<K> res = null;
+        while (cur != null) {
+            if (key.compareTo(cur.val) > 0) {
+                res = cur;
+                cur = cur.right;
+            } else {
+                cur = cur.left;
+            }
+        }
+        return entry(res);
+    }
+
+    /**
+     * 删除结点。结点有两个孩子时，其前驱结点的键和值会移动到该结点中，被移出树的是前驱结点。
+     */
+    void deleteEntry(EntryNode<K, V> e) {
+        deleteNode(e);
+        mod_count++;
+    }
+
+    private Map.Entry<K, V> pollEntry(EntryNode<K, V> e) {
+        if (e == null) {
+            return null;
+        }
+        Map.Entry<K, V> res = exportEntry(e);
+        deleteEntry(e);
+        return res;
+    }
+
+    /**
+     * 返回结点的快照，与TreeMap一样，导航方法返回的键值对不支持setValue。
+     */
+    static <K, V> Map.Entry<K, V> exportEntry(EntryNode<K, V> e) {
+        return e == null ? null : new AbstractMap.SimpleImmutableEntry<>(e.val, e.value);
+    }
+
+    static <K> K keyOrNull(Node<K> e) {
+        return e == null ? null : e.val;
+    }
+
+    static <K> K key(Node<K> e) {
+        if (e == null) {
+            throw new NoSuchElementException();
+        }
+        return e.val;
+    }
+
+    /**
+     * 按中序（或逆序）依次访问结点的迭代器，下一个结点通过findSuccessor（或findPredecessor）得到。
+     * 区间的终点由fence_key表示：它是第一个超出区间的结点的键，没有时为null。
+     * 比较的是键的引用而不是结点，因为删除有两个孩子的结点时，前驱结点的内容会移动到被删除的结点中。
+     */
+    abstract class NodeIterator<T> implements Iterator<T> {
+        private EntryNode<K, V> next;
+        private EntryNode<K, V> last_returned = null;
+        private final K fence_key;
+        private final boolean descending;
+        private int expected_mod_count = mod_count;
+
+        NodeIterator(EntryNode<K, V> first, EntryNode<K, V> fence, boolean descending) {
+            this.next = first;
+            this.fence_key = fence == null ? null : fence.val;
+            this.descending = descending;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            return next != null && next.val != fence_key;
+        }
+
+        final EntryNode<K, V> nextEntry() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (mod_count != expected_mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            last_returned = next;
+            next = entry(descending ? findPredecessor(next) : findSuccessor(next));
+            return last_returned;
+        }
+
+        @Override
+        public final void remove() {
+            if (last_returned == null) {
+                throw new IllegalStateException();
+            }
+            if (mod_count != expected_mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            // 逆序遍历时，下一个结点正是被删除结点的前驱，它的内容会移动到被删除的结点中。
+            if (descending && last_returned.left != null && last_returned.right != null) {
+                next = last_returned;
+            }
+            deleteEntry(last_returned);
+            expected_mod_count = mod_count;
+            last_returned = null;
+        }
+    }
+
+    /**
+     * 映射的一个区间视图，可以是升序或降序。lo、hi是升序意义下的下界和上界，from_start、to_end表示没有下界、上界。
+     */
+    final class View extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final boolean from_start;
+        private final K lo;
+        private final boolean lo_inclusive;
+        private final boolean to_end;
+        private final K hi;
+        private final boolean hi_inclusive;
+        private final boolean descending;
+
+        View(boolean from_start, K lo, boolean lo_inclusive,
+             boolean to_end, K hi, boolean hi_inclusive, boolean descending) {
+            if (!from_start && !to_end && lo.compareTo(hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.from_start = from_start;
+            this.lo = lo;
+            this.lo_inclusive = lo_inclusive;
+            this.to_end = to_end;
+            this.hi = hi;
+            this.hi_inclusive = hi_inclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(K key) {
+            if (from_start) {
+                return false;
+            }
+            int compare_res = key.compareTo(lo);
+            return compare_res < 0 || (compare_res == 0 && !lo_inclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (to_end) {
+                return false;
+            }
+            int compare_res = key.compareTo(hi);
+            return compare_res > 0 || (compare_res == 0 && !hi_inclusive);
+        }
+
+        private boolean inRange(K key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        /**
+         * 作为新视图的边界是否合法：inclusive为false时，边界可以等于本视图的开区间端点。
+         */
+        private boolean inRange(K key, boolean inclusive) {
+            if (inclusive) {
+                return inRange(key);
+            }
+            return (from_start || key.compareTo(lo) >= 0) && (to_end || key.compareTo(hi) <= 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean inRange(Object key) {
+            return inRange((K) Objects.requireNonNull(key));
+        }
+
+        // 以下absXxx方法都是升序意义下的查找，结果超出区间时返回null。
+
+        private EntryNode<K, V> absLowest() {
+            EntryNode<K, V> e = from_start ? getFirstEntry()
+                    : lo_inclusive ? getCeilingEntry(lo) : getHigherEntry(lo);
+            return e == null || tooHigh(e.val) ? null : e;
+        }
+
+        private EntryNode<K, V> absHighest() {
+            EntryNode<K, V> e = to_end ? getLastEntry()
+                    : hi_inclusive ? getFloorEntry(hi) : getLowerEntry(hi);
+            return e == null || tooLow(e.val) ? null : e;
+        }
+
+        private EntryNode<K, V> absCeiling(K key) {
+            if (tooLow(key)) {
+                return absLowest();
+            }
+            EntryNode<K, V> e = getCeilingEntry(key);
+            return e == null || tooHigh(e.val) ? null : e;
+        }
+
+        private EntryNode<K, V> absHigher(K key) {
+            if (tooLow(key)) {
+                return absLowest();
+            }
+            EntryNode<K, V> e = getHigherEntry(key);
+            return e == null || tooHigh(e.val) ? null : e;
+        }
+
+        private EntryNode<K, V> absFloor(K key) {
+            if (tooHigh(key)) {
+                return absHighest();
+            }
+            EntryNode<K, V> e = getFloorEntry(key);
+            return e == null || tooLow(e.val) ? null : e;
+        }
+
+        private EntryNode<K, V> absLower(K key) {
+            if (tooHigh(key)) {
+                return absHighest();
+            }
+            EntryNode<K, V> e = getLowerEntry(key);
+            return e == null || tooLow(e.val) ? null : e;
+        }
+
+        /** 升序意义下第一个超出上界的结点。 */
+        private EntryNode<K, V> absHighFence() {
+            return to_end ? null : hi_inclusive ? getHigherEntry(hi) : getCeilingEntry(hi);
+        }
+
+        /** 升序意义下最后一个超出下界的结点。 */
+        private EntryNode<K, V> absLowFence() {
+            return from_start ? null : lo_inclusive ? getLowerEntry(lo) : getFloorEntry(lo);
+        }
+
+        private EntryNode<K, V> first() {
+            return descending ? absHighest() : absLowest();
+        }
+
+        private EntryNode<K, V> last() {
+            return descending ? absLowest() : absHighest();
+        }
+
+        Iterator<EntryNode<K, V>> entryIterator() {
+            return new NodeIterator<EntryNode<K, V>>(first(), descending ? absLowFence() : absHighFence(), descending) {
+                @Override
+                public EntryNode<K, V> next() {
+                    return nextEntry();
+                }
+            };
+        }
+
+        /**
+         * 区间内的结点数，由顺序统计rank得到，时间复杂度O(logn)。
+         */
+        @Override
+        public int size() {
+            int high = to_end ? RedBlackTreeMap.this.size() : rank(hi, hi_inclusive);
+            int low = from_start ? 0 : rank(lo, !lo_inclusive);
+            return Math.max(high - low, 0);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return from_start && to_end ? getRoot() == null : absLowest() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return inRange(key) && getEntry(key) != null;
+        }
+
+        @Override
+        public V get(Object key) {
+            return inRange(key) ? RedBlackTreeMap.this.get(key) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!inRange(Objects.requireNonNull(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return RedBlackTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return inRange(key) ? RedBlackTreeMap.this.remove(key) : null;
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder() : null;
+        }
+
+        @Override
+        public K firstKey() {
+            return key(first());
+        }
+
+        @Override
+        public K lastKey() {
+            return key(last());
+        }
+
+        @Override
+        public Map.Entry<K, V> firstEntry() {
+            return exportEntry(first());
+        }
+
+        @Override
+        public Map.Entry<K, V> lastEntry() {
+            return exportEntry(last());
+        }
+
+        @Override
+        public Map.Entry<K, V> pollFirstEntry() {
+            return pollEntry(first());
+        }
+
+        @Override
+        public Map.Entry<K, V> pollLastEntry() {
+            return pollEntry(last());
+        }
+
+        @Override
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return exportEntry(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyOrNull(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> floorEntry(K key) {
+            return exportEntry(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyOrNull(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return exportEntry(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyOrNull(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public Map.Entry<K, V> higherEntry(K key) {
+            return exportEntry(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyOrNull(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return (Iterator) entryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return View.this.isEmpty();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return entryOf(o) != null;
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    EntryNode<K, V> e = entryOf(o);
+                    if (e == null) {
+                        return false;
+                    }
+                    deleteEntry(e);
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * 与键值对o相同且位于区间内的结点。
+         */
+        private EntryNode<K, V> entryOf(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return null;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object key = entry.getKey();
+            if (key == null || !inRange(key)) {
+                return null;
+            }
+            EntryNode<K, V> e = getEntry(key);
+            return e != null && Objects.equals(e.value, entry.getValue()) ? e : null;
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new AbstractCollection<V>() {
+                @Override
+                public Iterator<V> iterator() {
+                    Iterator<EntryNode<K, V>> it = entryIterator();
+                    return new Iterator<V>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public V next() {
+                            return it.next().value;
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return View.this.isEmpty();
+                }
+            };
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new View(from_start, lo, lo_inclusive, to_end, hi, hi_inclusive, !descending);
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K from_key, boolean from_inclusive, K to_key, boolean to_inclusive) {
+            if (!inRange(Objects.requireNonNull(from_key), from_inclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+            if (!inRange(Objects.requireNonNull(to_key), to_inclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            if (descending) {
+                return new View(false, to_key, to_inclusive, false, from_key, from_inclusive, true);
+            }
+            return new View(false, from_key, from_inclusive, false, to_key, to_inclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K to_key, boolean inclusive) {
+            if (!inRange(Objects.requireNonNull(to_key), inclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            if (descending) {
+                return new View(false, to_key, inclusive, to_end, hi, hi_inclusive, true);
+            }
+            return new View(from_start, lo, lo_inclusive, false, to_key, inclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K from_key, boolean inclusive) {
+            if (!inRange(Objects.requireNonNull(from_key), inclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+            if (descending) {
+                return new View(from_start, lo, lo_inclusive, false, from_key, inclusive, true);
+            }
+            return new View(false, from_key, inclusive, to_end, hi, hi_inclusive, false);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K from_key, K to_key) {
+            return subMap(from_key, true, to_key, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K to_key) {
+            return headMap(to_key, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K from_key) {
+            return tailMap(from_key, true);
+        }
+    }
+
+    /**
+     * 键的集合视图，所有操作都委托给映射m。
+     */
+    static final class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final NavigableMap<K, ?> m;
+
+        KeySet(NavigableMap<K, ?> m) {
+            this.m = m;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Map.Entry<K, ?>> it = m.entrySet().iterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return it.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return m.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return m.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!m.containsKey(o)) {
+                return false;
+            }
+            m.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            m.clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return m.comparator();
+        }
+
+        @Override
+        public K first() {
+            return m.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return m.lastKey();
+        }
+
+        @Override
+        public K lower(K e) {
+            return m.lowerKey(e);
+        }
+
+        @Override
+        public K floor(K e) {
+            return m.floorKey(e);
+        }
+
+        @Override
+        public K ceiling(K e) {
+            return m.ceilingKey(e);
+        }
+
+        @Override
+        public K higher(K e) {
+            return m.higherKey(e);
+        }
+
+        @Override
+        public K pollFirst() {
+            Map.Entry<K, ?> e = m.pollFirstEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public K pollLast() {
+            Map.Entry<K, ?> e = m.pollLastEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet<>(m.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K from, boolean from_inclusive, K to, boolean to_inclusive) {
+            return new KeySet<>(m.subMap(from, from_inclusive, to, to_inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K to, boolean inclusive) {
+            return new KeySet<>(m.headMap(to, inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K from, boolean inclusive) {
+            return new KeySet<>(m.tailMap(from, inclusive));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K from, K to) {
+            return subSet(from, true, to, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K to) {
+            return headSet(to, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K from) {
+            return tailSet(from, true);
+        }
+    }
+}
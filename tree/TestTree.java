@@ -1,5 +1,6 @@
 package cn.ning.algorithm.tree;
 
+import java.util.Arrays;
 
 /**
  * 用于测试树。
@@ -11,6 +12,10 @@ public class TestTree {
         //testBinarySearchTree();
         //testBalancedBinaryTree();
         //testRedBlackTree();
+        //testLongRedBlackTree();
+        //testRedBlackTreeMap();
+        //testConcurrentBalancedBinaryTree();
+        //testLongLockFreeSkipList();
     }
 
     /**
@@ -82,6 +87,8 @@ public class TestTree {
         bTree.preorderTraversal();
         bTree.inorderTraversal();
         System.out.println();
+        System.out.println("select(3): " + bTree.select(3).val + ", rank(6): " + bTree.rank(6)
+                + ", countInRange(3, 7): " + bTree.countInRange(3, 7));
 
         for (int i = 0; i < order.length; i++) {
             bTree.delete(order[i]);
@@ -94,11 +101,13 @@ public class TestTree {
 
     static void testRedBlackTree() {
         Integer[] order = new Integer[] {1, 4, 3, 6, 9, 7, 2, 5, 8, 10};
-        RedBlackTree tree = new RedBlackTree();
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
         tree.build(order);
         tree.breadthTraversal();
         tree.inorderTraversal();
         System.out.println();
+        System.out.println("select(3): " + tree.select(3).val + ", rank(6): " + tree.rank(6)
+                + ", countInRange(3, 7): " + tree.countInRange(3, 7));
         for (int i = 0; i < order.length; i++) {
             tree.delete(order[i]);
             tree.breadthTraversal();
@@ -106,4 +115,68 @@ public class TestTree {
             System.out.println();
         }
     }
+
+    static void testLongRedBlackTree() {
+        long[] order = new long[] {1, 4, 3, 6, 9, 7, 2, 5, 8, 10};
+        LongRedBlackTree tree = new LongRedBlackTree();
+        tree.build(order);
+        tree.inorderTraversal();
+        System.out.println();
+        for (int i = 0; i < order.length; i++) {
+            tree.delete(order[i]);
+            tree.inorderTraversal();
+            System.out.println();
+        }
+    }
+
+    static void testRedBlackTreeMap() {
+        Integer[] order = new Integer[] {1, 4, 3, 6, 9, 7, 2, 5, 8, 10};
+        RedBlackTreeMap<Integer, String> map = new RedBlackTreeMap<>();
+        for (Integer key : order) {
+            map.put(key, "v" + key);
+        }
+        map.breadthTraversal();
+        System.out.println(map);
+        System.out.println("floor(0): " + map.floorEntry(0) + ", ceiling(11): " + map.ceilingEntry(11));
+        System.out.println("headMap(4): " + map.headMap(4));
+        System.out.println("tailMap(7): " + map.tailMap(7, true));
+        System.out.println("subMap(3, 8): " + map.subMap(3, 8).keySet());
+        System.out.println("descending subMap(8, 3): " + map.descendingMap().subMap(8, true, 3, true));
+        map.subMap(3, 8).clear();
+        System.out.println(map);
+    }
+
+    static void testConcurrentBalancedBinaryTree() throws InterruptedException {
+        ConcurrentBalancedBinaryTree<Integer, Integer> tree = new ConcurrentBalancedBinaryTree<>();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            final int id = t;
+            writers[t] = new Thread(() -> {
+                for (int i = id; i < 1000; i += writers.length) {
+                    tree.put(i, i);
+                    if (i % 3 == 0) {
+                        tree.remove(i);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        System.out.println("size: " + tree.size() + ", get(1): " + tree.get(1) + ", get(3): " + tree.get(3));
+    }
+
+    static void testLongLockFreeSkipList() {
+        long[] order = new long[] {1, 4, 3, 6, 9, 7, 2, 5, 8, 10};
+        LongLockFreeSkipList list = new LongLockFreeSkipList();
+        list.build(order);
+        System.out.println(Arrays.toString(list.keys()));
+        System.out.println("contains(6): " + list.contains(6) + ", predecessor(6): " + list.findPredecessor(6, -1)
+                + ", successor(6): " + list.findSuccessor(6, -1));
+        for (int i = 0; i < order.length; i++) {
+            list.delete(order[i]);
+            System.out.println(Arrays.toString(list.keys()));
+        }
+    }
 }